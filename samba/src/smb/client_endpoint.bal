@@ -37,7 +37,8 @@ public type Client client object {
         }
     }
 
-    # The `get()` function can be used to retrieve file content from a remote resource.
+    # The `get()` function can be used to retrieve file content from a remote resource. When enabled in the
+    # `readAhead` configuration, the next blocks of the resource are read while the current ones are processed.
     #
     # + path   - The resource path
     # + return - A ReadableByteChannel that represents the data source to the resource or
@@ -47,6 +48,65 @@ public type Client client object {
         return get(self, resourcePath);
     }
 
+    # The `getRange()` function can be used to retrieve a byte range of a remote resource. Only the requested
+    # range is read from the Samba server.
+    #
+    # + path   - The resource path
+    # + offset - The offset of the first byte to read
+    # + length - The number of bytes to read. A negative value reads until the end of the resource
+    # + return - A ReadableByteChannel that represents the requested byte range of the resource or
+    # an `error` if failed to establish communication with the Samba server or read the resource
+    public remote function getRange(string path, int offset, int length = -1)
+            returns io:ReadableByteChannel|error {
+        handle resourcePath = java:fromString(path);
+        return getRange(self, resourcePath, offset, length);
+    }
+
+    # The `getParallel()` function can be used to retrieve the content of a large remote resource. The resource
+    # is read as chunks, several of which are fetched concurrently over pooled sessions, and the chunks are
+    # returned in order.
+    #
+    # + path   - The resource path
+    # + return - A ReadableByteChannel that represents the data source to the resource or
+    # an `error` if failed to establish communication with the Samba server or read the resource
+    public remote function getParallel(string path) returns io:ReadableByteChannel|error {
+        handle resourcePath = java:fromString(path);
+        return getParallel(self, resourcePath);
+    }
+
+    # The `download()` function can be used to copy a remote resource to a local file. The resource is read as
+    # chunks, several of which are fetched concurrently over pooled sessions and written at their offsets.
+    #
+    # + path      - The resource path
+    # + localPath - The path of the local file. An existing file is replaced
+    # + resumable - Whether the progress is recorded in a `.smbstate` file next to the local file. A resumable
+    # download continues a failed earlier attempt if the size and modification time of the resource are unchanged,
+    # and keeps the partially downloaded file if it fails
+    # + return    - An `error` if failed to establish communication with the Samba server, read the resource or
+    # write the local file
+    public remote function download(string path, string localPath, boolean resumable = false) returns error? {
+        handle resourcePath = java:fromString(path);
+        handle localFilePath = java:fromString(localPath);
+        return download(self, resourcePath, localFilePath, resumable);
+    }
+
+    # The `upload()` function can be used to copy a local file to a Samba server. The file is written as chunks,
+    # several of which are written concurrently over pooled sessions, to a temporary `.part` file which is renamed
+    # to the given path once all chunks are written. An existing file at the path is replaced.
+    #
+    # + localPath - The path of the local file
+    # + path      - The resource path
+    # + resumable - Whether the progress is recorded in a `.smbstate` file next to the local file. A resumable
+    # upload continues a failed earlier attempt if the size and modification time of the local file are unchanged,
+    # and keeps the temporary file on the server if it fails
+    # + return    - An `error` if failed to establish communication with the Samba server, read the local file or
+    # write the resource
+    public remote function upload(string localPath, string path, boolean resumable = false) returns error? {
+        handle localFilePath = java:fromString(localPath);
+        handle resourcePath = java:fromString(path);
+        return upload(self, localFilePath, resourcePath, resumable);
+    }
+
     # The `append()` function can be used to append content to an existing file in a Samba server.
     # A new file is created if the file does not exist.
     #
@@ -66,6 +126,17 @@ public type Client client object {
         return put(self, getInputContent(path, content));
     }
 
+    # The `putParallel()` function can be used to add a large file to a Samba server. The content is written as
+    # chunks, several of which are written concurrently over pooled sessions, to a temporary `.part` file which is
+    # renamed to the given path once all chunks are written. An existing file at the path is replaced.
+    #
+    # + path    - The resource path
+    # + content - Content to be written to the file in server
+    # + return  - An `error` if failed to establish communication with the Samba server or write the file
+    public remote function putParallel(string path, io:ReadableByteChannel|string|xml|json content) returns error? {
+        return putParallel(self, getInputContent(path, content));
+    }
+
     # The `delete()` function can be used to delete a file from a Samba server.
     #
     # + path   - The resource path
@@ -84,6 +155,53 @@ public type Client client object {
         return mkdir(self, resourcePath);
     }
 
+    # The `mkdirs()` function can be used to create a directory in a Samba server together with any missing parent
+    # directories. Nothing is done if the directory already exists.
+    #
+    # + path   - The directory path
+    # + return - An `error` if failed to establish communication with the Samba server or create a directory
+    public remote function mkdirs(string path) returns error? {
+        handle resourcePath = java:fromString(path);
+        return mkdirs(self, resourcePath);
+    }
+
+    # The `deleteMany()` function can be used to delete several files from a Samba server. The files are deleted
+    # concurrently over pooled sessions.
+    #
+    # + paths           - The resource paths
+    # + continueOnError - Whether the remaining files are deleted after a file could not be deleted. Otherwise the
+    # remaining files are reported as skipped
+    # + return          - The result for each path, in the order of the paths, or an `error` if failed to establish
+    # communication with the Samba server
+    public remote function deleteMany(string[] paths, boolean continueOnError = true) returns BatchResult[]|error {
+        return deleteMany(self, paths, continueOnError);
+    }
+
+    # The `renameMany()` function can be used to rename or move several files within the same Samba server. The
+    # files are renamed concurrently over pooled sessions.
+    #
+    # + renames         - The source and destination of each file
+    # + continueOnError - Whether the remaining files are renamed after a file could not be renamed. Otherwise the
+    # remaining files are reported as skipped
+    # + return          - The result for each rename, identified by its origin, in the order of the renames, or an
+    # `error` if failed to establish communication with the Samba server
+    public remote function renameMany(RenameRequest[] renames, boolean continueOnError = true)
+            returns BatchResult[]|error {
+        return renameMany(self, renames, continueOnError);
+    }
+
+    # The `statMany()` function can be used to get the metadata of several resources. The resources are queried
+    # concurrently over pooled sessions.
+    #
+    # + paths           - The resource paths
+    # + continueOnError - Whether the remaining resources are queried after a query failed. Otherwise the
+    # remaining resources are reported as skipped
+    # + return          - The result for each path, in the order of the paths, or an `error` if failed to establish
+    # communication with the Samba server
+    public remote function statMany(string[] paths, boolean continueOnError = true) returns StatResult[]|error {
+        return statMany(self, paths, continueOnError);
+    }
+
     # The `rmdir()` function can be used to delete an empty directory in a Samba server.
     #
     # + path   - The directory path
@@ -113,13 +231,57 @@ public type Client client object {
         return size(self, resourcePath);
     }
 
+    # The `stat()` function can be used to get the size, type, timestamps and attributes of a resource, which are
+    # read from the Samba server in a single request.
+    #
+    # + path   - The resource path
+    # + return - The metadata of the resource, with `exists` set to false if there is no such resource, or an
+    # `error` if failed to establish communication with the Samba server
+    public remote function stat(string path) returns FileStat|error {
+        handle resourcePath = java:fromString(path);
+        return stat(self, resourcePath);
+    }
+
     # The `list()` function can be used to get the file name list in a given folder.
     #
     # + path   - The direcotry path
+    # + fields - The names of the `FileInfo` fields to fill in. Fields which are not requested are not computed and
+    # are set to their zero value. All fields are filled in if no field is given
     # + return - An array of file names or an `error` if failed to establish communication with the Samba server
-    public remote function list(string path) returns FileInfo[]|error {
+    public remote function list(string path, string[] fields = []) returns FileInfo[]|error {
         handle resourcePath = java:fromString(path);
-        return list(self, resourcePath);
+        return list(self, resourcePath, fields);
+    }
+
+    # The `listStream()` function can be used to list a large directory. The entries are returned through a stream
+    # instead of an array of records. The directory is listed over a pooled session, which is released before the
+    # entries are handed out, so that a caller which reads the stream slowly holds no session.
+    #
+    # + path   - The direcotry path
+    # + fields - The names of the `FileInfo` fields to fill in. Fields which are not requested are not computed and
+    # are set to their zero value. All fields are filled in if no field is given
+    # + return - A stream of the entries or an `error` if failed to establish communication with the Samba server
+    public remote function listStream(string path, string[] fields = []) returns FileInfoStream|error {
+        handle resourcePath = java:fromString(path);
+        return listStream(self, resourcePath, fields);
+    }
+
+    # The `walk()` function can be used to list the files in a directory tree. Subdirectories are listed
+    # concurrently over pooled sessions, and the entries are returned through a stream as they are found, in no
+    # particular order. Subdirectories which cannot be listed are skipped, and the stream ends with an `error`
+    # naming them once all other entries are returned.
+    #
+    # + path     - The direcotry path
+    # + maxDepth - The depth of the deepest entries returned, where the children of the directory are at depth 1.
+    # `0` returns no entries, without listing the directory, and a negative value walks the whole tree
+    # + filter   - Conditions on the returned entries
+    # + fields   - The names of the `FileInfo` fields to fill in. Fields which are not requested are not computed and
+    # are set to their zero value. All fields are filled in if no field is given
+    # + return   - A stream of the entries or an `error` if failed to establish communication with the Samba server
+    public remote function walk(string path, int maxDepth = -1, WalkFilter filter = {}, string[] fields = [])
+            returns FileInfoStream|error {
+        handle resourcePath = java:fromString(path);
+        return walk(self, resourcePath, maxDepth, filter, fields);
     }
 
     # The `isDirectory()` function can be used to check if a given resource is a direcotry.
@@ -130,19 +292,102 @@ public type Client client object {
         handle resourcePath = java:fromString(path);
         return isDirectory(self, resourcePath);
     }
+
+    # The `close()` function can be used to release the resources held by the client, such as the workers of
+    # its session pool. Operations started after the client is closed fail.
+    public function close() {
+        close(self);
+    }
+
+    # The `getCacheStats()` function can be used to get the hit and miss counts of the metadata cache of the
+    # client, which is configured using `metadataCache`.
+    #
+    # + return - The statistics of the metadata cache
+    public function getCacheStats() returns CacheStats {
+        return getCacheStats(self);
+    }
 };
 
 # Configuration for smb client endpoint.
 #
-# + protocol     - Supported protocol
-# + host         - Target service URL
-# + port         - Port number of the remote service
-# + secureSocket - Authenthication options
+# + protocol         - Supported protocol
+# + host             - Target service URL
+# + port             - Port number of the remote service
+# + secureSocket     - Authenthication options
+# + sessionPool      - Configurations for the pool of sessions shared by the operations of the client
+# + parallelTransfer - Configurations for the chunked transfers of `getParallel()`, `download()`, `upload()` and
+# `putParallel()`
+# + readAhead        - Configurations for the read-ahead of the streams returned by `get()`
+# + batch            - Configurations for the batch operations and directory walks
+# + metadataCache    - Configurations for the cache of the metadata read by `size()`, `stat()`, `isDirectory()`,
+# `list()` and `statMany()`
 public type ClientEndpointConfig record {|
     Protocol protocol = SMB;
     string host = "127.0.0.1";
     int port = 445;
     SecureSocket? secureSocket = ();
+    SessionPoolConfig sessionPool = {};
+    ParallelTransferConfig parallelTransfer = {};
+    ReadAheadConfig readAhead = {};
+    BatchConfig batch = {};
+    MetadataCacheConfig metadataCache = {};
+|};
+
+# Configuration for the pool of sessions maintained by an smb client endpoint. The pool bounds the number of
+# operations run against the Samba server at the same time, over the connection shared by the sessions.
+#
+# + maxActiveSessions   - Maximum number of sessions that can be in use at the same time
+# + maxWaitTimeInMillis - Maximum time an operation waits for a session when all sessions are in use
+public type SessionPoolConfig record {|
+    int maxActiveSessions = 8;
+    int maxWaitTimeInMillis = 30000;
+|};
+
+# Configuration for the chunked transfers of an smb client endpoint.
+#
+# + chunkSizeInBytes - Size of the chunks a resource is read or written in
+# + maxConcurrency   - Maximum number of chunks read or written at the same time. Limited by the `maxActiveSessions`
+# of the session pool
+public type ParallelTransferConfig record {|
+    int chunkSizeInBytes = 4194304;
+    int maxConcurrency = 4;
+|};
+
+# Configuration for the read-ahead of the streams returned by the `get()` function of an smb client endpoint.
+#
+# + bufferSize       - Size of the blocks a resource is read in
+# + outstandingReads - Number of blocks read ahead of the caller by a stream. 0, the default, reads the resource as a
+# single sequential stream. The streams of a client together read ahead at most half of the `maxActiveSessions` of
+# the session pool, and a stream which cannot read ahead reads its next block when it is needed
+# + directBuffers    - Whether blocks are held in direct buffers. Blocks are read from the server into byte arrays,
+# so direct buffers cost an extra copy per block
+public type ReadAheadConfig record {|
+    int bufferSize = 262144;
+    int outstandingReads = 0;
+    boolean directBuffers = false;
+|};
+
+# Configuration for the batch operations of an smb client endpoint.
+#
+# + maxConcurrency - Maximum number of items of a batch, or directories of a `walk()`, processed at the same time.
+# Limited by the `maxActiveSessions` of the session pool
+public type BatchConfig record {|
+    int maxConcurrency = 8;
+|};
+
+# Configuration for the cache of resource metadata of an smb client endpoint. Entries are dropped when they
+# expire, and when the resource, or a resource in the same directory, is changed through the same client. Changes
+# made by other clients are seen once the entries expire.
+#
+# + enabled             - Whether metadata is cached
+# + maxEntries          - Maximum number of cached entries, above which the least recently used entries are dropped
+# + ttlInMillis         - Time for which the metadata of an existing resource, or a directory listing, is cached
+# + negativeTtlInMillis - Time for which it is cached that a resource does not exist
+public type MetadataCacheConfig record {|
+    boolean enabled = false;
+    int maxEntries = 10000;
+    int ttlInMillis = 5000;
+    int negativeTtlInMillis = 1000;
 |};
 
 function getInputContent(string path, io:ReadableByteChannel|string|xml|json content) returns InputContent{
@@ -83,3 +83,67 @@ public type InputContent record{|
     io:ReadableByteChannel? fileContent = ();
     string? textContent = ();
 |};
+
+# Source and destination of a file renamed by the `renameMany()` function.
+#
+# + origin - The source file location
+# + destination - The destination file location
+public type RenameRequest record {|
+    string origin;
+    string destination;
+|};
+
+# Result of a batch operation on a single resource.
+#
+# + path - The resource path
+# + success - Whether the operation succeeded
+# + errorMessage - The reason of the failure, if the operation failed
+public type BatchResult record {|
+    string path;
+    boolean success;
+    string errorMessage = "";
+|};
+
+# Metadata of a resource.
+#
+# + path - The resource path
+# + exists - Whether the resource exists
+# + isFolder - Whether the resource is a folder
+# + size - Size of the resource
+# + lastModifiedTimestamp - Last modified timestamp of the resource in UNIX Epoch time
+# + createdTimestamp - Creation timestamp of the resource in UNIX Epoch time
+# + attributes - The DOS attributes of the resource, such as 0x01 for read-only, 0x02 for hidden and 0x10 for
+# directory
+public type FileStat record {|
+    string path;
+    boolean exists;
+    boolean isFolder;
+    int size;
+    int lastModifiedTimestamp;
+    int createdTimestamp;
+    int attributes;
+|};
+
+# Result of a `statMany()` query on a single resource.
+#
+# + path - The resource path
+# + success - Whether the query succeeded
+# + errorMessage - The reason of the failure, if the query failed
+# + stat - The metadata of the resource, if the query succeeded
+public type StatResult record {|
+    string path;
+    boolean success;
+    string errorMessage = "";
+    FileStat? stat = ();
+|};
+
+# Statistics of the metadata cache of a client.
+#
+# + hits - Number of lookups served from the cache
+# + misses - Number of lookups which were not cached and were read from the Samba server
+# + size - Number of entries held in the cache
+public type CacheStats record {|
+    int hits;
+    int misses;
+    int size;
+|};
@@ -27,6 +27,29 @@ public function get(Client clientEndpoint, handle path) returns io:ReadableByteC
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
 } external;
 
+public function getRange(Client clientEndpoint, handle path, int offset, int length)
+    returns io:ReadableByteChannel|error = @java:Method{
+    name: "getRange",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function getParallel(Client clientEndpoint, handle path) returns io:ReadableByteChannel|error = @java:Method{
+    name: "getParallel",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function download(Client clientEndpoint, handle path, handle localPath, boolean resumable)
+    returns error? = @java:Method{
+    name: "download",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function upload(Client clientEndpoint, handle localPath, handle path, boolean resumable)
+    returns error? = @java:Method{
+    name: "upload",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
 public function append(Client clientEndpoint, InputContent inputContent) returns error? = @java:Method{
     name: "append",
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
@@ -37,6 +60,11 @@ public function put(Client clientEndpoint, InputContent inputContent) returns er
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
 } external;
 
+public function putParallel(Client clientEndpoint, InputContent inputContent) returns error? = @java:Method{
+    name: "putParallel",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
 public function delete(Client clientEndpoint, handle path) returns error? = @java:Method{
     name: "delete",
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
@@ -52,6 +80,29 @@ public function rmdir(Client clientEndpoint, handle path) returns error? = @java
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
 } external;
 
+public function mkdirs(Client clientEndpoint, handle path) returns error? = @java:Method{
+    name: "mkdirs",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function deleteMany(Client clientEndpoint, string[] paths, boolean continueOnError)
+    returns BatchResult[]|error = @java:Method{
+    name: "deleteMany",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function renameMany(Client clientEndpoint, RenameRequest[] renames, boolean continueOnError)
+    returns BatchResult[]|error = @java:Method{
+    name: "renameMany",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function statMany(Client clientEndpoint, string[] paths, boolean continueOnError)
+    returns StatResult[]|error = @java:Method{
+    name: "statMany",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
 public function rename(Client clientEndpoint, handle origin, handle destination) returns error? = @java:Method{
     name: "rename",
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
@@ -62,11 +113,48 @@ public function size(Client clientEndpoint, handle path) returns int|error = @ja
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
 } external;
 
-public function list(Client clientEndpoint, handle path) returns FileInfo[]|error = @java:Method{
+public function stat(Client clientEndpoint, handle path) returns FileStat|error = @java:Method{
+    name: "stat",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function close(Client clientEndpoint) = @java:Method{
+    name: "close",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function getCacheStats(Client clientEndpoint) returns CacheStats = @java:Method{
+    name: "getCacheStats",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function list(Client clientEndpoint, handle path, string[] fields) returns FileInfo[]|error = @java:Method{
     name: "list",
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
 } external;
 
+public function listStream(Client clientEndpoint, handle path, string[] fields)
+    returns FileInfoStream|error = @java:Method{
+    name: "listStream",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function walk(Client clientEndpoint, handle path, int maxDepth, WalkFilter filter, string[] fields)
+    returns FileInfoStream|error = @java:Method{
+    name: "walk",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function nextFileInfos(FileInfoStream fileInfoStream, int maxEntries) returns FileInfo[]|error? = @java:Method{
+    name: "nextFileInfos",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
+public function closeFileInfoStream(FileInfoStream fileInfoStream) = @java:Method{
+    name: "closeFileInfoStream",
+    class: "org.wso2.ei.b7a.smb.client.SMBClient"
+} external;
+
 public function isDirectory(Client clientEndpoint, handle path) returns boolean|error = @java:Method{
     name: "isDirectory",
     class: "org.wso2.ei.b7a.smb.client.SMBClient"
@@ -77,6 +165,16 @@ public function poll(ListenerConfig config) returns error? = @java:Method{
     class: "org.wso2.ei.b7a.smb.server.SMBListenerHelper"
 } external;
 
+public function startWatching(Listener listenerEndpoint) = @java:Method{
+    name: "start",
+    class: "org.wso2.ei.b7a.smb.server.SMBListenerHelper"
+} external;
+
+public function stopWatching(Listener listenerEndpoint) returns error? = @java:Method{
+    name: "stop",
+    class: "org.wso2.ei.b7a.smb.server.SMBListenerHelper"
+} external;
+
 public function register(Listener listenerEndpoint, ListenerConfig config, service smbService, handle name)
     returns handle|error = @java:Method{
     name: "register",
@@ -27,8 +27,8 @@
 # + publicURIString - The receiver as a URI String for public display
 # + fileType - File's type
 # + isAttached - Whether the fileObject is attached
-# + isContentOpen - Whether someone reads/writes to this file
-# + isExecutable - Whether this file is executable
+# + isContentOpen - Whether someone reads/writes to this file. Not reported by SMB, so always `false`
+# + isExecutable - Whether this file is executable. Not reported by SMB, so always `false`
 # + isHidden - Whether this file is hidden
 # + isReadable - Whether this file can be read
 # + isWritable - Whether this file can be written to
@@ -0,0 +1,53 @@
+// Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+# A stream of file entries, returned by operations which may list a large number of files. The entries are
+# fetched from the Samba server in the background and handed out as they arrive, while the number of entries
+# held in memory stays bounded.
+public type FileInfoStream object {
+
+    # The `nextEntries()` function can be used to get the next entries of the stream. It waits until at least one
+    # entry is available.
+    #
+    # + maxEntries - Maximum number of entries to return
+    # + return     - The next entries, `()` if all entries have been returned, or an `error` if the listing failed
+    public function nextEntries(int maxEntries = 1000) returns FileInfo[]|error? {
+        return nextFileInfos(self, maxEntries);
+    }
+
+    # The `close()` function can be used to stop the listing before all entries have been returned.
+    public function close() {
+        closeFileInfoStream(self);
+    }
+};
+
+# Conditions on the entries returned by the `walk()` function. The conditions are checked on the metadata returned
+# with the directory listings, so they do not cost extra requests to the Samba server.
+#
+# + fileNamePattern - Regular expression the file name must match. An empty pattern matches all names
+# + minSize - Minimum size of a file in bytes, or -1 for no minimum
+# + maxSize - Maximum size of a file in bytes, or -1 for no maximum
+# + modifiedAfter - Only entries last modified after this UNIX Epoch time are returned, or -1 for no limit
+# + modifiedBefore - Only entries last modified before this UNIX Epoch time are returned, or -1 for no limit
+# + includeFolders - Whether folders are returned in addition to files
+public type WalkFilter record {|
+    string fileNamePattern = "";
+    int minSize = -1;
+    int maxSize = -1;
+    int modifiedAfter = -1;
+    int modifiedBefore = -1;
+    boolean includeFolders = false;
+|};
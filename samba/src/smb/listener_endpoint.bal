@@ -59,7 +59,9 @@ public type Listener object {
 
     function start() returns error? {
         var scheduler = self.config.cronExpression;
-        if (scheduler is string) {
+        if (self.config.adaptivePolling is AdaptivePollingConfig) {
+            // Polls are scheduled by the watchers of the services
+        } else if (scheduler is string) {
             task:AppointmentConfiguration config = { appointmentDetails: scheduler };
             self.appointment = new(config);
         } else {
@@ -71,6 +73,7 @@ public type Listener object {
             check appointment.attach(appointmentService, attachment = self);
             check appointment.start();
         }
+        startWatching(self);
         log:printInfo("Listening to remote server at " + self.config.host + "...");
     }
 
@@ -79,6 +82,7 @@ public type Listener object {
         if (appointment is task:Scheduler) {
             check appointment.stop();
         }
+        check stopWatching(self);
         log:printInfo("Stopped listening to remote server at " + self.config.host);
     }
 
@@ -121,6 +125,33 @@ public type Listener object {
 # + fileNamePattern - File name pattern that event need to trigger
 # + pollingInterval - Periodic time interval to check new update
 # + cronExpression - Cron expression to check new update
+# + snapshotDirectory - Local directory where the files seen by each service are recorded, so that after a restart
+# only the files added or deleted while the listener was down are reported. The files seen are kept in memory only
+# if no directory is given, and all existing files are reported as added by the first poll
+# + recursive - Whether the files in the subdirectories of `path` are watched as well
+# + incrementalScan - Whether a directory is only listed again once its modification time changes, which happens
+# when a file is added to or deleted from it. The files of unchanged directories are taken from the snapshot
+# + fullScanInterval - Interval in milliseconds after which every directory is listed again in the incremental scan
+# mode, for file systems which do not update the modification times of directories
+# + notifyChanges - Whether the listener is notified of changes shortly after they happen, instead of only at the
+# polling interval. Polls at `pollingInterval` or `cronExpression` still reconcile any change which was missed, and
+# can be made infrequent
+# + notifyInterval - Interval in milliseconds at which the modification times of the watched directories are
+# checked for changes when `notifyChanges` is set
+# + adaptivePolling - Configurations for polling at an interval which follows the rate of changes, instead of at
+# `pollingInterval` or `cronExpression`. `pollingInterval` is then the interval of the first poll
+# + dispatch - Configurations for delivering each added or deleted file to the service in its own event, several
+# at a time. All the changes found by a poll are delivered in a single event if not set
+# + batching - Configurations for splitting the changes found by a poll into events of a bounded number of files
+# + watches - Directories watched by particular services, keyed by the name the service is attached with. The
+# services without an entry watch `path`. Every directory is polled on the schedule of the listener, over the
+# sessions of the listener
+# + sessionPool - Configurations for the pool of sessions shared by the services attached to the listener
+# + cluster - Configurations for sharing the watched files among the listeners of several nodes, so that the changes
+# of each file are reported by a single node
+# + claim - Configurations for claiming each added file for this node before the service is notified of it, so that
+# several consumers of a directory never process the same file
+# + postProcessing - Configurations for deleting or moving the added files once the service is notified of them
 # + serverConnector - Server connector for service
 public type ListenerConfig record {|
     Protocol protocol = SMB;
@@ -131,5 +162,133 @@ public type ListenerConfig record {|
     string fileNamePattern = "(.*).txt";
     int pollingInterval = 60000;
     string? cronExpression = ();
+    string? snapshotDirectory = ();
+    boolean recursive = false;
+    boolean incrementalScan = false;
+    int fullScanInterval = 600000;
+    boolean notifyChanges = false;
+    int notifyInterval = 500;
+    AdaptivePollingConfig? adaptivePolling = ();
+    DispatchConfig? dispatch = ();
+    BatchingConfig? batching = ();
+    map<WatchedDirectory> watches = {};
+    SessionPoolConfig sessionPool = {};
+    ClusterConfig? cluster = ();
+    ClaimConfig? claim = ();
+    PostProcessingConfig? postProcessing = ();
     handle? serverConnector = ();
 |};
+
+# Configuration for adaptive polling of an SMB listener endpoint. The polling interval drops to `minInterval` after
+# a poll which finds changes, and is multiplied by `backoffFactor` after each poll which finds none, up to
+# `maxInterval`. The next poll is scheduled once the current poll completes, and never sooner than the duration of
+# the current poll, so polls never overlap.
+#
+# + minInterval - Shortest interval in milliseconds between polls, used while changes keep arriving
+# + maxInterval - Longest interval in milliseconds between polls, reached while the directory is idle
+# + backoffFactor - Factor the interval is multiplied by after a poll which finds no changes
+public type AdaptivePollingConfig record {|
+    int minInterval = 1000;
+    int maxInterval = 300000;
+    float backoffFactor = 2.0;
+|};
+
+# Configuration for concurrent event dispatch of an SMB listener endpoint. Each added or deleted file is delivered to
+# the service in its own event, or in events of the size given by `batching`, and is recorded in the snapshot once
+# the service returns. A file whose event fails is reported again by a later poll. A poll waits while `maxInFlight`
+# events are being delivered.
+#
+# + maxInFlight - Maximum number of events being delivered at the same time
+# + orderedByPath - Whether the events of the same file are delivered one after the other, in the order they were
+# found
+public type DispatchConfig record {|
+    int maxInFlight = 8;
+    boolean orderedByPath = true;
+|};
+
+# Configuration for batching the events of an SMB listener endpoint. The changes found by a poll are delivered in
+# events of at most `maxFilesPerEvent` files each, one after the other, or concurrently with `dispatch`. Changes
+# which do not fill an event are held back for up to `maxBatchLatency`, and a file which is added and deleted again
+# while held back is never reported.
+#
+# + maxFilesPerEvent - Maximum number of added and deleted files in an event
+# + maxBatchLatency - Longest time in milliseconds changes are held back to fill an event
+public type BatchingConfig record {|
+    int maxFilesPerEvent = 100;
+    int maxBatchLatency = 0;
+|};
+
+# Directory watched by a service attached to an SMB listener endpoint.
+#
+# + path - Remote SMB directory location
+# + fileNamePattern - File name pattern that event need to trigger. The pattern of the listener is used if not set
+public type WatchedDirectory record {|
+    string path;
+    string? fileNamePattern = ();
+|};
+
+# Configuration for the cluster membership of an SMB listener endpoint. Each node renews a lease file in
+# `membershipDirectory` every `heartbeatInterval`, and the nodes whose lease is younger than `leaseDuration` share
+# the watched files among them by hashing the paths of the files. Every node lists the watched directories, and
+# reports the changes of the files it owns only. A node which takes a file over reports it as added, so the files are
+# delivered at least once while the members change. The membership directory should be outside the watched
+# directories.
+#
+# + nodeId - Identifier of the node, unique in the cluster
+# + membershipDirectory - Remote SMB directory location of the lease files of the nodes
+# + leaseDuration - Time in milliseconds after which a node which did not renew its lease leaves the cluster
+# + heartbeatInterval - Interval in milliseconds at which a node renews its lease
+public type ClusterConfig record {|
+    string nodeId;
+    string membershipDirectory;
+    int leaseDuration = 30000;
+    int heartbeatInterval = 10000;
+|};
+
+# Configuration for claiming the files of an SMB listener endpoint. Each added file is renamed into the
+# `processingDirectory/nodeId` subdirectory of its directory before the service is notified of it, and the service
+# receives the claimed path. The rename succeeds for a single consumer, and fails while the file is still open for
+# writing. A claimed file is deleted once the service returns, unless `postProcessing` moves it, and is moved back if
+# the service returns an error or panics. A claim which is still in place after `claimTimeout`, by the clock of the
+# server, such as one of a node which stopped while processing it, is moved back into its directory and reported again.
+# The processing directories are left out of recursive scans.
+#
+# + nodeId - Identifier of the node, which names its processing area. The node identifier of `cluster` is used if
+# not set
+# + processingDirectory - Name of the directory of the processing areas in each watched directory
+# + claimTimeout - Time in milliseconds after which a claim is recovered
+public type ClaimConfig record {|
+    string? nodeId = ();
+    string processingDirectory = ".processing";
+    int claimTimeout = 600000;
+|};
+
+# Represents the actions on the added files once the service is notified of them.
+public type PostProcessingAction NONE|DELETE|MOVE;
+
+# The added files are left as they are.
+public const NONE = "NONE";
+
+# The added files are deleted.
+public const DELETE = "DELETE";
+
+# The added files are moved to the archive directory.
+public const MOVE = "MOVE";
+
+# Configuration for post processing the files of an SMB listener endpoint. Once the service returns, the added files of
+# the event are deleted or moved as given by `action`, and if the service returns an error or panics, they are moved to
+# `errorDirectory`, if set. The actions on the files of an event run as a batch over a pooled session of the listener,
+# while the next event is delivered. The archive and error directories are created if missing, and a file whose name is
+# taken there is given a numeric suffix, such as `data.csv.1`. The files which are deleted or moved are not recorded in
+# the snapshot, so they are not reported as deleted, while the files which could not be deleted or moved are recorded,
+# so they are not reported again.
+#
+# + action - Action on the added files once the service returns
+# + archiveDirectory - Remote SMB directory location the files are moved to by the `MOVE` action
+# + errorDirectory - Remote SMB directory location the files are moved to if the service fails. The files are left
+# as they are, to be reported again, if not set
+public type PostProcessingConfig record {|
+    PostProcessingAction action = NONE;
+    string? archiveDirectory = ();
+    string? errorDirectory = ();
+|};
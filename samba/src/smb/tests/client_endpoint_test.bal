@@ -23,6 +23,7 @@ string filePath = "/sambaIn/test.txt";
 string newFilePath = "/sambaIn/newFile.txt";
 string appendFilePath = "src/smb/tests/resources/file1.txt";
 string putFilePath = "src/smb/tests/resources/file2.txt";
+string downloadFilePath = "target/test.txt";
 
 ClientEndpointConfig config = {
         protocol: SMB,
@@ -33,6 +34,14 @@ ClientEndpointConfig config = {
 
 Client clientEP = new(config);
 
+Client cachingClientEP = new({
+        protocol: SMB,
+        host: "127.0.0.1",
+        port: 445,
+        secureSocket: {basicAuth: {username: "smbuser", password: "smbpwd"}},
+        metadataCache: {enabled: true}
+});
+
 //@test:Config{
 //}
 public function testReadContent() {
@@ -57,6 +66,74 @@ public function testReadContent() {
     }
 }
 
+//@test:Config{
+//    dependsOn: ["testReadContent"]
+//}
+public function testReadContentRange() {
+    io:ReadableByteChannel|error response = clientEP -> getRange(filePath, 2, 5);
+    if(response is io:ReadableByteChannel){
+        byte[]|error content = response.read(100);
+        if(content is byte[]){
+            log:printInfo("Read " + content.length().toString() + " bytes from offset 2");
+            log:printInfo("Executed GetRange operation");
+        } else {
+            log:printError("Error in reading retrieved content", content);
+        }
+        var closeResult = response.close();
+        if (closeResult is error) {
+            log:printError("Error occurred while closing the channel", closeResult);
+        }
+    } else {
+        log:printError("Error in retrieving content range", response);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testReadContentRange"]
+//}
+public function testReadContentParallel() {
+    io:ReadableByteChannel|error response = clientEP -> getParallel(filePath);
+    if(response is io:ReadableByteChannel){
+        byte[]|error content = response.read(100);
+        if(content is byte[]){
+            log:printInfo("Read " + content.length().toString() + " bytes");
+            log:printInfo("Executed GetParallel operation");
+        } else {
+            log:printError("Error in reading retrieved content", content);
+        }
+        var closeResult = response.close();
+        if (closeResult is error) {
+            log:printError("Error occurred while closing the channel", closeResult);
+        }
+    } else {
+        log:printError("Error in retrieving content", response);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testReadContentParallel"]
+//}
+public function testDownloadContent() {
+    error? response = clientEP -> download(filePath, downloadFilePath);
+    if(response is error) {
+        log:printError("Error in download operation", response);
+    } else {
+        log:printInfo("Executed Download operation");
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testDownloadContent"]
+//}
+public function testResumableDownloadContent() {
+    error? response = clientEP -> download(filePath, downloadFilePath, true);
+    if(response is error) {
+        log:printError("Error in resumable download operation", response);
+    } else {
+        log:printInfo("Executed resumable Download operation");
+    }
+}
+
 //@test:Config{
 //    dependsOn: ["testReadContent"]
 //}
@@ -91,6 +168,36 @@ public function testPutFileContent() {
     }
 }
 
+//@test:Config{
+//    dependsOn: ["testPutFileContent"]
+//}
+public function testPutFileContentParallel() {
+    io:ReadableByteChannel|error byteChannelToPut = io:openReadableFile(putFilePath);
+
+    if(byteChannelToPut is io:ReadableByteChannel){
+        error? response = clientEP -> putParallel(newFilePath, byteChannelToPut);
+        if(response is error) {
+            log:printError("Error in putParallel operation", response);
+        } else {
+            log:printInfo("Executed PutParallel operation");
+        }
+    } else {
+        log:printError("Error in reading input file", byteChannelToPut);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testPutFileContentParallel"]
+//}
+public function testUploadFile() {
+    error? response = clientEP -> upload(putFilePath, newFilePath, true);
+    if(response is error) {
+        log:printError("Error in upload operation", response);
+    } else {
+        log:printInfo("Executed Upload operation");
+    }
+}
+
 //@test:Config{
 //    dependsOn: ["testPutFileContent"]
 //}
@@ -187,6 +294,19 @@ public function testGetFileSize() {
     }
 }
 
+//@test:Config{
+//    dependsOn: ["testGetFileSize"]
+//}
+public function testGetFileStat() {
+    FileStat|error response = clientEP -> stat(filePath);
+    if (response is FileStat) {
+        log:printInfo("Size: " + response.size.toString() + ", created: " + response.createdTimestamp.toString());
+        log:printInfo("Executed Stat operation");
+    } else {
+        log:printError("Error in getting file metadata", response);
+    }
+}
+
 //@test:Config{
 //    dependsOn: ["testGetFileSize"]
 //}
@@ -203,6 +323,65 @@ public function testListFiles() {
     }
 }
 
+//@test:Config{
+//    dependsOn: ["testListFiles"]
+//}
+public function testListFilesAsStream() {
+    FileInfoStream|error response = clientEP -> listStream(sambaShare, ["name", "size", "lastModifiedTimestamp"]);
+    if (response is FileInfoStream) {
+        FileInfo[]|error? entries = response.nextEntries(100);
+        while (entries is FileInfo[]) {
+            log:printInfo("Received " + entries.length().toString() + " entries");
+            entries = response.nextEntries(100);
+        }
+        if (entries is error) {
+            log:printError("Error in getting file list", entries);
+        }
+        response.close();
+        log:printInfo("Executed ListStream operation");
+    } else {
+        log:printError("Error in getting file list", response);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testListFilesAsStream"]
+//}
+public function testWalkFiles() {
+    FileInfoStream|error response = clientEP -> walk(sambaShare, 3, {fileNamePattern: "(.*).txt"});
+    if (response is FileInfoStream) {
+        FileInfo[]|error? entries = response.nextEntries();
+        while (entries is FileInfo[]) {
+            foreach var fileInfo in entries {
+                log:printInfo(fileInfo.path);
+            }
+            entries = response.nextEntries();
+        }
+        if (entries is error) {
+            log:printError("Error in walking the directory tree", entries);
+        }
+        response.close();
+        log:printInfo("Executed Walk operation");
+    } else {
+        log:printError("Error in walking the directory tree", response);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testWalkFiles"]
+//}
+public function testStatManyFiles() {
+    StatResult[]|error response = clientEP -> statMany([filePath, newFilePath]);
+    if (response is StatResult[]) {
+        foreach var result in response {
+            log:printInfo(result.toString());
+        }
+        log:printInfo("Executed StatMany operation");
+    } else {
+        log:printError("Error in getting file metadata", response);
+    }
+}
+
 //@test:Config{
 //    dependsOn: ["testListFiles"]
 //}
@@ -226,3 +405,45 @@ public function testRemoveDirectory() {
         log:printInfo("Executed Rmdir operation");
     }
 }
+
+//@test:Config{
+//    dependsOn: ["testRemoveDirectory"]
+//}
+public function testCreateDirectories() {
+    error? response = clientEP -> mkdirs(sambaShare + "/batch/nested");
+    if(response is error) {
+        log:printError("Error in creating directories", response);
+    } else {
+        log:printInfo("Executed Mkdirs operation");
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testCreateDirectories"]
+//}
+public function testDeleteManyFiles() {
+    BatchResult[]|error response = clientEP -> deleteMany([sambaShare + "/batch/nested", sambaShare + "/batch"]);
+    if (response is BatchResult[]) {
+        foreach var result in response {
+            log:printInfo(result.toString());
+        }
+        log:printInfo("Executed DeleteMany operation");
+    } else {
+        log:printError("Error in deleting files", response);
+    }
+}
+
+//@test:Config{
+//    dependsOn: ["testDeleteManyFiles"]
+//}
+public function testCachedMetadata() {
+    int|error firstSize = cachingClientEP -> size(filePath);
+    int|error secondSize = cachingClientEP -> size(filePath);
+    if (firstSize is int && secondSize is int) {
+        CacheStats stats = cachingClientEP.getCacheStats();
+        log:printInfo("Cache hits: " + stats.hits.toString() + ", misses: " + stats.misses.toString());
+        log:printInfo("Executed cached Size operation");
+    } else {
+        log:printError("Error in getting cached file size");
+    }
+}
@@ -15,6 +15,9 @@
 // under the License.
 
 import ballerina/log;
+import ballerina/runtime;
+import ballerina/test;
+import ballerina/time;
 
 
 listener Listener remoteServer = new({
@@ -43,3 +46,343 @@ service smbServerConnector on remoteServer {
         }
     }
 }
+
+const int WAIT_TIMEOUT = 30000;
+const int WAIT_INTERVAL = 500;
+
+// The paths of the added files reported to each service, and the size of the largest event of each service
+map<string[]> reportedFiles = {};
+map<int> largestEvents = {};
+
+listener Listener scanServer = new(scanConfig());
+
+service scanConnector on scanServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("scan", event);
+    }
+}
+
+listener Listener notifyServer = new(notifyConfig());
+
+service notifyConnector on notifyServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("notify", event);
+    }
+}
+
+listener Listener dispatchServer = new(dispatchConfig());
+
+service dispatchConnector on dispatchServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("dispatch", event);
+    }
+}
+
+listener Listener watchesServer = new(watchesConfig());
+
+service watchesConnector on watchesServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("watches", event);
+    }
+}
+
+service csvConnector on watchesServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("csv", event);
+    }
+}
+
+listener Listener clusterNode1Server = new(clusterConfig("node1"));
+
+service clusterNode1Connector on clusterNode1Server {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("node1", event);
+    }
+}
+
+listener Listener clusterNode2Server = new(clusterConfig("node2"));
+
+service clusterNode2Connector on clusterNode2Server {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("node2", event);
+    }
+}
+
+listener Listener claimServer = new(claimConfig());
+
+service claimConnector on claimServer {
+    resource function onFileChange(WatchEvent event) {
+        recordWatchEvent("claim", event);
+    }
+}
+
+listener Listener postProcessingServer = new(postProcessingConfig());
+
+service postProcessingConnector on postProcessingServer {
+    resource function onFileChange(WatchEvent event) returns error? {
+        recordWatchEvent("postProcessing", event);
+        foreach FileInfo addedFile in event.addedFiles {
+            if (addedFile.path.endsWith("failing.txt")) {
+                return error("Failed to process " + addedFile.path);
+            }
+        }
+    }
+}
+
+function listenerConfig(string path, string fileNamePattern = "(.*).txt") returns ListenerConfig {
+    return {
+        protocol: SMB,
+        host: "127.0.0.1",
+        secureSocket: {
+            basicAuth: {
+                username: "smbuser",
+                password: "smbpwd"
+            }
+        },
+        port: 445,
+        path: path,
+        pollingInterval: 2000,
+        fileNamePattern: fileNamePattern
+    };
+}
+
+function scanConfig() returns ListenerConfig {
+    ListenerConfig scanListenerConfig = listenerConfig("/sambaIn/scan");
+    scanListenerConfig.snapshotDirectory = "target/snapshots";
+    scanListenerConfig.recursive = true;
+    scanListenerConfig.incrementalScan = true;
+    return scanListenerConfig;
+}
+
+function notifyConfig() returns ListenerConfig {
+    ListenerConfig notifyListenerConfig = listenerConfig("/sambaIn/notify");
+    // Changes are only found in time by notification, or by an adaptive poll
+    notifyListenerConfig.pollingInterval = 60000;
+    notifyListenerConfig.notifyChanges = true;
+    notifyListenerConfig.adaptivePolling = {minInterval: 1000, maxInterval: 60000};
+    return notifyListenerConfig;
+}
+
+function dispatchConfig() returns ListenerConfig {
+    ListenerConfig dispatchListenerConfig = listenerConfig("/sambaIn/dispatch");
+    dispatchListenerConfig.dispatch = {maxInFlight: 4};
+    dispatchListenerConfig.batching = {maxFilesPerEvent: 2, maxBatchLatency: 1000};
+    return dispatchListenerConfig;
+}
+
+function watchesConfig() returns ListenerConfig {
+    // The pattern of the listener needs a regular expression, while the one of csvConnector is sent as a wildcard
+    ListenerConfig watchesListenerConfig = listenerConfig("/sambaIn/watches", "report_[0-9]+\\.txt");
+    watchesListenerConfig.watches = {csvConnector: {path: "/sambaIn/watches/csv", fileNamePattern: "data_.*\\.csv"}};
+    watchesListenerConfig.sessionPool = {maxActiveSessions: 2};
+    return watchesListenerConfig;
+}
+
+function clusterConfig(string nodeId) returns ListenerConfig {
+    ListenerConfig clusterListenerConfig = listenerConfig("/sambaIn/cluster");
+    clusterListenerConfig.cluster = {nodeId: nodeId, membershipDirectory: "/sambaIn/membership"};
+    return clusterListenerConfig;
+}
+
+function claimConfig() returns ListenerConfig {
+    ListenerConfig claimListenerConfig = listenerConfig("/sambaIn/claim");
+    claimListenerConfig.claim = {nodeId: "node1", claimTimeout: 4000};
+    return claimListenerConfig;
+}
+
+function postProcessingConfig() returns ListenerConfig {
+    ListenerConfig postProcessingListenerConfig = listenerConfig("/sambaIn/postProcessing");
+    postProcessingListenerConfig.postProcessing = {
+        action: MOVE,
+        archiveDirectory: "/sambaIn/archive",
+        errorDirectory: "/sambaIn/error"
+    };
+    return postProcessingListenerConfig;
+}
+
+function recordWatchEvent(string serviceName, WatchEvent event) {
+    lock {
+        string[] files = reportedFiles[serviceName] ?: [];
+        foreach FileInfo addedFile in event.addedFiles {
+            log:printInfo(serviceName + " service added file path: " + addedFile.path);
+            files[files.length()] = addedFile.path;
+        }
+        reportedFiles[serviceName] = files;
+        int eventSize = event.addedFiles.length() + event.deletedFiles.length();
+        if (eventSize > (largestEvents[serviceName] ?: 0)) {
+            largestEvents[serviceName] = eventSize;
+        }
+    }
+}
+
+function timesReported(string serviceName, string path) returns int {
+    int count = 0;
+    lock {
+        foreach string reportedFile in reportedFiles[serviceName] ?: [] {
+            if (reportedFile == path) {
+                count += 1;
+            }
+        }
+    }
+    return count;
+}
+
+function isReported(string serviceName, string path) returns boolean {
+    return timesReported(serviceName, path) > 0;
+}
+
+function exists(string path) returns boolean {
+    int|error size = clientEP -> size(path);
+    return size is int;
+}
+
+function waitUntil(function () returns boolean condition, int timeout = WAIT_TIMEOUT) returns boolean {
+    int waited = 0;
+    while (!condition()) {
+        if (waited >= timeout) {
+            return false;
+        }
+        runtime:sleep(WAIT_INTERVAL);
+        waited += WAIT_INTERVAL;
+    }
+    return true;
+}
+
+function putWatchedFile(string path) {
+    error? response = clientEP -> put(path, "Content of a watched file");
+    test:assertTrue(!(response is error), msg = "Could not add file " + path);
+}
+
+function removeFile(string path) {
+    if (exists(path)) {
+        error? response = clientEP -> delete(path);
+        test:assertTrue(!(response is error), msg = "Could not delete file " + path);
+    }
+}
+
+function createWatchedDirectory(string path) {
+    error? response = clientEP -> mkdirs(path);
+    test:assertTrue(!(response is error), msg = "Could not create directory " + path);
+}
+
+//@test:Config{
+//}
+public function testIncrementalScan() {
+    // A new name on each run, since the snapshot keeps the files of earlier runs
+    string path = "/sambaIn/scan/nested/scanned-" + time:currentTime().time.toString() + ".txt";
+    createWatchedDirectory("/sambaIn/scan/nested");
+    putWatchedFile(path);
+    test:assertTrue(waitUntil(function () returns boolean {
+        return isReported("scan", path);
+    }), msg = "A file added to a subdirectory was not reported");
+}
+
+//@test:Config{
+//}
+public function testChangeNotification() {
+    createWatchedDirectory("/sambaIn/notify");
+    putWatchedFile("/sambaIn/notify/notified.txt");
+    // Well within the polling interval of the listener
+    test:assertTrue(waitUntil(function () returns boolean {
+        return isReported("notify", "/sambaIn/notify/notified.txt");
+    }, timeout = 10000), msg = "A change was not reported before the next scheduled poll");
+}
+
+//@test:Config{
+//}
+public function testBatchedDispatch() {
+    createWatchedDirectory("/sambaIn/dispatch");
+    foreach int index in 1...5 {
+        putWatchedFile("/sambaIn/dispatch/dispatched" + index.toString() + ".txt");
+    }
+    test:assertTrue(waitUntil(function () returns boolean {
+        foreach int index in 1...5 {
+            if (!isReported("dispatch", "/sambaIn/dispatch/dispatched" + index.toString() + ".txt")) {
+                return false;
+            }
+        }
+        return true;
+    }), msg = "Not all the dispatched files were reported");
+    test:assertTrue((largestEvents["dispatch"] ?: 0) <= 2, msg = "An event held more files than a batch");
+}
+
+//@test:Config{
+//}
+public function testWatchedDirectories() {
+    createWatchedDirectory("/sambaIn/watches/csv");
+    putWatchedFile("/sambaIn/watches/report_a.txt");
+    putWatchedFile("/sambaIn/watches/report_1.txt");
+    putWatchedFile("/sambaIn/watches/csv/data_1.csv");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return isReported("watches", "/sambaIn/watches/report_1.txt")
+            && isReported("csv", "/sambaIn/watches/csv/data_1.csv");
+    }), msg = "A file was not reported to the service watching its directory");
+    // Listed by the same poll as report_1.txt
+    test:assertFalse(isReported("watches", "/sambaIn/watches/report_a.txt"),
+        msg = "A file which does not match the pattern was reported");
+    test:assertFalse(isReported("watches", "/sambaIn/watches/csv/data_1.csv"),
+        msg = "A file of another watched directory was reported");
+}
+
+//@test:Config{
+//}
+public function testClusterSharding() {
+    createWatchedDirectory("/sambaIn/cluster");
+    foreach int index in 1...4 {
+        putWatchedFile("/sambaIn/cluster/sharded" + index.toString() + ".txt");
+    }
+    foreach int index in 1...4 {
+        string path = "/sambaIn/cluster/sharded" + index.toString() + ".txt";
+        test:assertTrue(waitUntil(function () returns boolean {
+            return timesReported("node1", path) + timesReported("node2", path) > 0;
+        }), msg = "A file was reported by no node: " + path);
+        test:assertEquals(timesReported("node1", path) + timesReported("node2", path), 1,
+            msg = "A file was reported by more than one node: " + path);
+    }
+}
+
+//@test:Config{
+//}
+public function testClaims() {
+    createWatchedDirectory("/sambaIn/claim");
+    putWatchedFile("/sambaIn/claim/claimed.txt");
+    string claimedPath = "/sambaIn/claim/.processing/node1/claimed.txt";
+    test:assertTrue(waitUntil(function () returns boolean {
+        return isReported("claim", claimedPath);
+    }), msg = "A claimed file was not reported at its path in the processing area");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return !exists(claimedPath) && !exists("/sambaIn/claim/claimed.txt");
+    }), msg = "The claim of a processed file was not completed");
+
+    // A claim of a node which is gone is recovered into the directory after the claim timeout, and claimed again
+    createWatchedDirectory("/sambaIn/claim/.processing/node0");
+    putWatchedFile("/sambaIn/claim/.processing/node0/recovered.txt");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return isReported("claim", "/sambaIn/claim/.processing/node1/recovered.txt");
+    }), msg = "An expired claim was not recovered");
+}
+
+//@test:Config{
+//}
+public function testPostProcessing() {
+    removeFile("/sambaIn/archive/archived.txt");
+    removeFile("/sambaIn/archive/archived.txt.1");
+    removeFile("/sambaIn/error/failing.txt");
+    createWatchedDirectory("/sambaIn/postProcessing");
+    putWatchedFile("/sambaIn/postProcessing/archived.txt");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return exists("/sambaIn/archive/archived.txt");
+    }), msg = "A processed file was not archived");
+
+    // The name is taken in the archive directory by then
+    putWatchedFile("/sambaIn/postProcessing/archived.txt");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return exists("/sambaIn/archive/archived.txt.1");
+    }), msg = "A processed file of a taken name was not archived with a suffix");
+
+    putWatchedFile("/sambaIn/postProcessing/failing.txt");
+    test:assertTrue(waitUntil(function () returns boolean {
+        return exists("/sambaIn/error/failing.txt");
+    }), msg = "A file whose service returned an error was not moved to the error directory");
+    test:assertFalse(exists("/sambaIn/postProcessing/failing.txt"), msg = "A failed file was left in place");
+}
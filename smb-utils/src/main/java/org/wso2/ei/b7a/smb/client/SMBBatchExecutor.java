@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs an operation on each item of a batch. The items are spread over a bounded number of workers, each of which
+ * keeps one pooled session for the whole batch and sends its next request as soon as the previous one completes.
+ */
+class SMBBatchExecutor {
+
+    private static final String SKIPPED = "Skipped after an earlier item of the batch failed";
+
+    private SMBBatchExecutor() {
+        // private constructor
+    }
+
+    /**
+     * Runs an operation on each item of a batch.
+     *
+     * @param pool            the session pool of the endpoint
+     * @param itemCount       the number of items in the batch
+     * @param maxConcurrency  the maximum number of items processed at the same time
+     * @param continueOnError whether the remaining items are processed after an item failed. Otherwise they are
+     *                        reported as skipped
+     * @param operation       the operation on an item
+     * @return the results, in the order of the items
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if a worker failed outside of the operation on an item
+     */
+    static ItemResult[] run(SMBSessionPool pool, int itemCount, int maxConcurrency, boolean continueOnError,
+                            ItemOperation operation) throws BallerinaSMBException, IOException {
+
+        ItemResult[] results = new ItemResult[itemCount];
+        int workerCount = Math.min(itemCount, Math.min(Math.max(1, maxConcurrency), pool.getMaxActiveSessions()));
+        AtomicInteger nextItem = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<Object>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(pool.submit(session -> {
+                int index;
+                while (!stopped.get() && (index = nextItem.getAndIncrement()) < itemCount) {
+                    try {
+                        results[index] = ItemResult.success(operation.execute(session, index));
+                    } catch (IOException | BallerinaSMBException | RuntimeException e) {
+                        // A failure of one item never fails the items of the batch which succeeded
+                        results[index] = ItemResult.failure(e.getMessage() == null ? e.toString() : e.getMessage());
+                        if (!continueOnError) {
+                            stopped.set(true);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (CompletableFuture<Object> worker : workers) {
+            SMBSessionPool.await(worker);
+        }
+        for (int i = 0; i < itemCount; i++) {
+            if (results[i] == null) {
+                results[i] = ItemResult.failure(SKIPPED);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * An operation on an item of a batch.
+     */
+    @FunctionalInterface
+    interface ItemOperation {
+
+        Object execute(SMBSession session, int index) throws IOException, BallerinaSMBException;
+    }
+
+    /**
+     * The result of the operation on an item of a batch.
+     */
+    static class ItemResult {
+
+        private final boolean success;
+        private final Object value;
+        private final String errorMessage;
+
+        private ItemResult(boolean success, Object value, String errorMessage) {
+
+            this.success = success;
+            this.value = value;
+            this.errorMessage = errorMessage;
+        }
+
+        static ItemResult success(Object value) {
+            return new ItemResult(true, value, null);
+        }
+
+        static ItemResult failure(String errorMessage) {
+            return new ItemResult(false, null, errorMessage == null ? "" : errorMessage);
+        }
+
+        boolean isSuccess() {
+            return success;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equally sized byte buffers which are reused across streams, so that copying data does not allocate a
+ * new buffer per read. Direct buffers are expensive to allocate and are only released by the garbage collector,
+ * which makes reusing them important.
+ */
+class SMBBufferPool {
+
+    private static final int TRANSFER_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_POOLED_TRANSFER_BUFFERS = 16;
+
+    /**
+     * Pool of the buffers used to transfer data from SMB channels to other channels. jcifs reads into byte arrays,
+     * so these are heap buffers: a direct buffer would only add a copy between the array and the buffer.
+     */
+    static final SMBBufferPool TRANSFER_BUFFERS = new SMBBufferPool(TRANSFER_BUFFER_SIZE, false,
+            MAX_POOLED_TRANSFER_BUFFERS);
+
+    private final int bufferSize;
+    private final boolean direct;
+    private final int maxPooledBuffers;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    SMBBufferPool(int bufferSize, boolean direct, int maxPooledBuffers) {
+
+        this.bufferSize = bufferSize;
+        this.direct = direct;
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Takes a buffer from the pool, or allocates one if the pool is empty.
+     *
+     * @return a cleared buffer
+     */
+    ByteBuffer acquire() {
+
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+        }
+        pooledBuffers.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer is dropped if the pool is full.
+     *
+     * @param buffer the buffer to return
+     */
+    void release(ByteBuffer buffer) {
+
+        if (pooledBuffers.incrementAndGet() <= maxPooledBuffers) {
+            buffers.offer(buffer);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.ballerinalang.stdlib.io.channels.base.Channel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Concrete implementation of the {@link Channel} over the content of a remote file
+ */
+class SMBChannel extends Channel {
+
+    private final ByteChannel byteChannel;
+
+    SMBChannel(ByteChannel channel) {
+
+        super(channel);
+        this.byteChannel = channel;
+    }
+
+    /**
+     * Transfers content of the remote file straight to another channel, such as a local {@link
+     * java.nio.channels.FileChannel}, through a pooled heap buffer.
+     *
+     * @param position   the position to transfer from. Seekable channels are positioned at it, for streamed
+     *                   content it is the number of bytes to skip
+     * @param count      the maximum number of bytes to transfer, or a negative value to transfer until the end
+     * @param dstChannel the channel to write to
+     * @throws IOException if the content could not be read or written
+     */
+    @Override
+    public void transfer(int position, int count, WritableByteChannel dstChannel) throws IOException {
+
+        ByteBuffer buffer = SMBBufferPool.TRANSFER_BUFFERS.acquire();
+        try {
+            if (byteChannel instanceof SeekableByteChannel) {
+                ((SeekableByteChannel) byteChannel).position(position);
+            } else if (copy(buffer, position, null) < position) {
+                return;
+            }
+            copy(buffer, count < 0 ? Long.MAX_VALUE : count, dstChannel);
+        } finally {
+            SMBBufferPool.TRANSFER_BUFFERS.release(buffer);
+        }
+    }
+
+    /**
+     * Copies up to the given number of bytes to the destination, or discards them if there is no destination.
+     *
+     * @return the number of bytes copied
+     */
+    private long copy(ByteBuffer buffer, long count, WritableByteChannel dstChannel) throws IOException {
+
+        long copied = 0;
+        while (copied < count) {
+            buffer.clear();
+            if (count - copied < buffer.capacity()) {
+                buffer.limit((int) (count - copied));
+            }
+            int read = byteChannel.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (dstChannel != null && buffer.hasRemaining()) {
+                dstChannel.write(buffer);
+            }
+            copied += read;
+        }
+        return copied;
+    }
+
+    @Override
+    public Channel getChannel() {
+        return this;
+    }
+
+    @Override
+    public boolean remaining() {
+        return false;
+    }
+}
@@ -24,15 +24,12 @@ import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
 import org.ballerinalang.stdlib.io.channels.base.Channel;
 import org.ballerinalang.stdlib.io.utils.IOConstants;
+import org.wso2.ei.b7a.smb.session.SMBEndpointContext;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.session.SMBSessionPoolConfig;
 import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
 import org.wso2.ei.b7a.smb.util.SMBUtil;
 import org.wso2.ei.b7a.smb.util.SmbConstants;
-import org.wso2.transport.remotefilesystem.RemoteFileSystemConnectorFactory;
-import org.wso2.transport.remotefilesystem.client.connector.contract.FtpAction;
-import org.wso2.transport.remotefilesystem.client.connector.contract.VFSClientConnector;
-import org.wso2.transport.remotefilesystem.exception.RemoteFileSystemConnectorException;
-import org.wso2.transport.remotefilesystem.impl.RemoteFileSystemConnectorFactoryImpl;
-import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -40,12 +37,15 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 /**
  * Contains functionality of SMB client
  */
 public class SMBClient {
 
+    private static final int DEFAULT_BATCH_CONCURRENCY = 8;
+
     private SMBClient() {
         // private constructor
     }
@@ -53,267 +53,301 @@ public class SMBClient {
     public static void initClientEndpoint(ObjectValue clientEndpoint, MapValue<Object, Object> config)
             throws BallerinaSMBException {
 
-        String protocol = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_PROTOCOL);
-        if (SMBUtil.notValidProtocol(protocol)) {
-            throw new BallerinaSMBException("Only SMB protocol is supported by SMB client.");
-        }
+        SMBEndpointContext endpointContext = SMBEndpointContext.from(config);
+        SMBSessionPoolConfig poolConfig = SMBSessionPoolConfig.from(
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_SESSION_POOL));
+        SMBTransferConfig transferConfig = SMBTransferConfig.from(
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_PARALLEL_TRANSFER));
+        SMBReadAheadConfig readAheadConfig = SMBReadAheadConfig.from(
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_READ_AHEAD));
+        clientEndpoint.addNativeData(SmbConstants.SMB_SESSION_POOL, new SMBSessionPool(endpointContext, poolConfig));
+        clientEndpoint.addNativeData(SmbConstants.SMB_TRANSFER_CONFIG, transferConfig);
+        clientEndpoint.addNativeData(SmbConstants.SMB_TRANSFER_BUFFERS, new SMBBufferPool(
+                transferConfig.getChunkSize(), false, transferConfig.getMaxConcurrency() + 1));
+        clientEndpoint.addNativeData(SmbConstants.SMB_READ_AHEAD_CONFIG, readAheadConfig);
+        MapValue batchConfig = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_BATCH);
+        clientEndpoint.addNativeData(SmbConstants.SMB_BATCH_CONCURRENCY, batchConfig == null ? DEFAULT_BATCH_CONCURRENCY
+                : Math.toIntExact(batchConfig.getIntValue(SmbConstants.BATCH_MAX_CONCURRENCY)));
+        // Buffers and the reads sent ahead are shared by the streams of the endpoint, so that read-ahead never
+        // takes more than half of the sessions of the pool, however many streams are open
+        int readAheadLimit = readAheadConfig.getReadAheadLimit(poolConfig.getMaxActiveSessions());
+        clientEndpoint.addNativeData(SmbConstants.SMB_READ_AHEAD_BUFFERS, new SMBBufferPool(
+                readAheadConfig.getBufferSize(), readAheadConfig.isDirectBuffers(),
+                readAheadLimit + poolConfig.getMaxActiveSessions()));
+        clientEndpoint.addNativeData(SmbConstants.SMB_READ_AHEAD_PERMITS, new Semaphore(readAheadLimit));
+        clientEndpoint.addNativeData(SmbConstants.SMB_METADATA_CACHE, SMBMetadataCache.from(
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_METADATA_CACHE)));
+    }
+
+    public static ObjectValue get(ObjectValue clientConnector, String filePath) {
 
-        Map<String, String> authMap = SMBUtil.getAuthMap(config);
-        clientEndpoint.addNativeData(SmbConstants.ENDPOINT_CONFIG_USERNAME,
-                authMap.get(SmbConstants.ENDPOINT_CONFIG_USERNAME));
-        clientEndpoint.addNativeData(SmbConstants.ENDPOINT_CONFIG_PASS_KEY,
-                authMap.get(SmbConstants.ENDPOINT_CONFIG_PASS_KEY));
-        clientEndpoint.addNativeData(SmbConstants.ENDPOINT_CONFIG_HOST,
-                config.getStringValue(SmbConstants.ENDPOINT_CONFIG_HOST));
-        clientEndpoint.addNativeData(SmbConstants.ENDPOINT_CONFIG_PORT,
-                SMBUtil.extractPortValue(config.getIntValue(SmbConstants.ENDPOINT_CONFIG_PORT)));
-        clientEndpoint.addNativeData(SmbConstants.ENDPOINT_CONFIG_PROTOCOL, protocol);
-        Map<String, String> smbConfig = new HashMap<>(3);
-        smbConfig.put(SmbConstants.SMB_PASSIVE_MODE, String.valueOf(true));
-        smbConfig.put(SmbConstants.USER_DIR_IS_ROOT, String.valueOf(false));
-        smbConfig.put(SmbConstants.AVOID_PERMISSION_CHECK, String.valueOf(true));
-        clientEndpoint.addNativeData(SmbConstants.PROPERTY_MAP, smbConfig);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBReadAheadConfig config = (SMBReadAheadConfig) clientConnector.getNativeData(
+                SmbConstants.SMB_READ_AHEAD_CONFIG);
+        if (config.getOutstandingReads() > 0) {
+            SMBBufferPool buffers = (SMBBufferPool) clientConnector.getNativeData(
+                    SmbConstants.SMB_READ_AHEAD_BUFFERS);
+            Semaphore readPermits = (Semaphore) clientConnector.getNativeData(SmbConstants.SMB_READ_AHEAD_PERMITS);
+            SMBClientHelper.executeOnPool(clientConnector, future, pool -> SMBClientHelper.executeReadAheadGetAction(
+                    pool, buffers, readPermits, filePath, config));
+        } else {
+            SMBClientHelper.execute(clientConnector, future,
+                    session -> SMBClientHelper.executeGetAction(session, filePath));
+        }
+        return null;
     }
 
-    public static ObjectValue get(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
+    public static ObjectValue getRange(ObjectValue clientConnector, String filePath, long offset, long length) {
 
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBClientHelper.execute(clientConnector, future,
+                session -> SMBClientHelper.executeRangedGetAction(session, filePath, offset, length));
+        return null;
+    }
+
+    public static ObjectValue getParallel(ObjectValue clientConnector, String filePath) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future,
-                remoteFileSystemBaseMessage -> SMBClientHelper.executeGetAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.GET);
+        SMBTransferConfig config = (SMBTransferConfig) clientConnector.getNativeData(SmbConstants.SMB_TRANSFER_CONFIG);
+        SMBBufferPool buffers = (SMBBufferPool) clientConnector.getNativeData(SmbConstants.SMB_TRANSFER_BUFFERS);
+        SMBClientHelper.executeOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeParallelGetAction(pool, buffers, filePath, config));
         return null;
     }
 
+    public static void download(ObjectValue clientConnector, String filePath, String localPath, boolean resumable) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBTransferConfig config = (SMBTransferConfig) clientConnector.getNativeData(SmbConstants.SMB_TRANSFER_CONFIG);
+        SMBClientHelper.executeOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeDownloadAction(pool, filePath, localPath, resumable, config));
+    }
+
+    public static void upload(ObjectValue clientConnector, String localPath, String filePath, boolean resumable) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBTransferConfig config = (SMBTransferConfig) clientConnector.getNativeData(SmbConstants.SMB_TRANSFER_CONFIG);
+        SMBClientHelper.executeUpdateOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeUploadAction(pool, localPath, filePath, resumable, config), filePath);
+    }
+
     public static void append(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
             throws BallerinaSMBException {
 
-        try {
-            String url = SMBUtil.createUrl(clientConnector,
-                    inputContent.getStringValue(SmbConstants.INPUT_CONTENT_FILE_PATH_KEY));
-            Map<String, String> propertyMap = new HashMap<>(
-                    (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-            propertyMap.put(SmbConstants.PROPERTY_URI, url);
+        write(clientConnector, inputContent, true);
+    }
 
-            boolean isFile = inputContent.getBooleanValue(SmbConstants.INPUT_CONTENT_IS_FILE_KEY);
-            RemoteFileSystemMessage message;
-            if (isFile) {
-                ObjectValue fileContent = inputContent.getObjectValue(SmbConstants.INPUT_CONTENT_FILE_CONTENT_KEY);
-                Channel byteChannel = (Channel) fileContent.getNativeData(IOConstants.BYTE_CHANNEL_NAME);
-                message = new RemoteFileSystemMessage(byteChannel.getInputStream());
-            } else {
-                String textContent = inputContent.getStringValue(SmbConstants.INPUT_CONTENT_TEXT_CONTENT_KEY);
-                InputStream stream = new ByteArrayInputStream(textContent.getBytes());
-                message = new RemoteFileSystemMessage(stream);
-            }
+    public static void put(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
+            throws BallerinaSMBException {
 
-            CompletableFuture<Object> future = BRuntime.markAsync();
-            SMBClientListener connectorListener = new SMBClientListener(future,
-                    remoteFileSystemBaseMessage -> SMBClientHelper.executeGenericAction(future));
-            RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
+        write(clientConnector, inputContent, false);
+    }
 
-            VFSClientConnector connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap,
-                    connectorListener);
-            connector.send(message, FtpAction.APPEND);
-            future.complete(null);
-        } catch (RemoteFileSystemConnectorException | IOException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
+    public static void putParallel(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
+            throws BallerinaSMBException {
+
+        String filePath = inputContent.getStringValue(SmbConstants.INPUT_CONTENT_FILE_PATH_KEY);
+        InputStream stream = openContent(inputContent);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBTransferConfig config = (SMBTransferConfig) clientConnector.getNativeData(SmbConstants.SMB_TRANSFER_CONFIG);
+        SMBClientHelper.executeUpdateOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeParallelPutAction(pool, filePath, stream, config), filePath);
     }
 
-    public static void put(ObjectValue clientConnector, MapValue<Object, Object> inputContent)
+    private static void write(ObjectValue clientConnector, MapValue<Object, Object> inputContent, boolean append)
             throws BallerinaSMBException {
 
-        try {
-            String url = SMBUtil.createUrl(clientConnector,
-                    inputContent.getStringValue(SmbConstants.INPUT_CONTENT_FILE_PATH_KEY));
-            Map<String, String> propertyMap = new HashMap<>(
-                    (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-            propertyMap.put(SmbConstants.PROPERTY_URI, url);
+        String filePath = inputContent.getStringValue(SmbConstants.INPUT_CONTENT_FILE_PATH_KEY);
+        InputStream stream = openContent(inputContent);
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeWriteAction(session, filePath, stream, append), filePath);
+    }
 
+    private static InputStream openContent(MapValue<Object, Object> inputContent) throws BallerinaSMBException {
+
+        try {
             boolean isFile = inputContent.getBooleanValue(SmbConstants.INPUT_CONTENT_IS_FILE_KEY);
-            RemoteFileSystemMessage message;
             if (isFile) {
                 ObjectValue fileContent = inputContent.getObjectValue(SmbConstants.INPUT_CONTENT_FILE_CONTENT_KEY);
                 Channel byteChannel = (Channel) fileContent.getNativeData(IOConstants.BYTE_CHANNEL_NAME);
-                message = new RemoteFileSystemMessage(byteChannel.getInputStream());
+                return byteChannel.getInputStream();
             } else {
                 String textContent = inputContent.getStringValue(SmbConstants.INPUT_CONTENT_TEXT_CONTENT_KEY);
-                InputStream stream = new ByteArrayInputStream(textContent.getBytes());
-                message = new RemoteFileSystemMessage(stream);
+                return new ByteArrayInputStream(textContent.getBytes());
             }
-
-            CompletableFuture<Object> future = BRuntime.markAsync();
-            SMBClientListener connectorListener = new SMBClientListener(future, remoteFileSystemBaseMessage ->
-                    SMBClientHelper.executeGenericAction(future));
-            RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-
-            VFSClientConnector connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap,
-                    connectorListener);
-            connector.send(message, FtpAction.PUT);
-            future.complete(null);
-        } catch (RemoteFileSystemConnectorException | IOException e) {
+        } catch (IOException e) {
             throw new BallerinaSMBException(e.getMessage());
         }
     }
 
-    public static void delete(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
-
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+    public static void delete(ObjectValue clientConnector, String filePath) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future,
-                remoteFileSystemBaseMessage -> SMBClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.DELETE);
-        future.complete(null);
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeDeleteAction(session, filePath), filePath);
     }
 
-    public static boolean isDirectory(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
-
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+    public static boolean isDirectory(ObjectValue clientConnector, String filePath) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future, remoteFileSystemBaseMessage ->
-                SMBClientHelper.executeIsDirectoryAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.ISDIR);
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        SMBClientHelper.execute(clientConnector, future,
+                session -> SMBClientHelper.executeIsDirectoryAction(session, filePath, cache));
         return false;
     }
 
-    public static ArrayValue list(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
-
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+    public static ArrayValue list(ObjectValue clientConnector, String filePath, ArrayValue fields)
+            throws BallerinaSMBException {
 
+        SMBFileInfoFields fileInfoFields = SMBFileInfoFields.of(fields.getStringArray());
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future, remoteFileSystemBaseMessage ->
-                SMBClientHelper.executeListAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.LIST);
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        SMBClientHelper.execute(clientConnector, future,
+                session -> SMBClientHelper.executeListAction(session, filePath, fileInfoFields, cache));
         return null;
     }
 
-    public static void mkdir(ObjectValue clientConnector, String path) throws BallerinaSMBException {
+    public static ObjectValue listStream(ObjectValue clientConnector, String filePath, ArrayValue fields)
+            throws BallerinaSMBException {
+
+        SMBFileInfoFields fileInfoFields = SMBFileInfoFields.of(fields.getStringArray());
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBClientHelper.executeOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeListStreamAction(pool, filePath, fileInfoFields));
+        return null;
+    }
 
-        String url = SMBUtil.createUrl(clientConnector, path);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+    public static ObjectValue walk(ObjectValue clientConnector, String path, long maxDepth, MapValue filter,
+                                   ArrayValue fields) throws BallerinaSMBException {
 
+        SMBWalkFilter walkFilter = SMBWalkFilter.from(filter);
+        SMBFileInfoFields fileInfoFields = SMBFileInfoFields.of(fields.getStringArray());
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future,
-                remoteFileSystemBaseMessage -> SMBClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
+        int parallelism = (Integer) clientConnector.getNativeData(SmbConstants.SMB_BATCH_CONCURRENCY);
+        SMBClientHelper.executeOnPool(clientConnector, future, pool -> SMBClientHelper.executeWalkAction(pool, path,
+                (int) Math.max(-1, Math.min(maxDepth, Integer.MAX_VALUE)), walkFilter, fileInfoFields, parallelism));
+        return null;
+    }
+
+    public static Object nextFileInfos(ObjectValue fileInfoStream, long maxEntries) {
+
+        SMBFileInfoStream stream = (SMBFileInfoStream) fileInfoStream.getNativeData(
+                SmbConstants.SMB_FILE_INFO_STREAM);
         try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
+            return SMBClientHelper.nextFileInfos(stream, (int) Math.max(1, Math.min(maxEntries, Integer.MAX_VALUE)));
+        } catch (IOException | BallerinaSMBException e) {
+            return SMBUtil.createError(e.getMessage(), e.getCause() == null ? null : e.getCause().getMessage());
         }
-        connector.send(null, FtpAction.MKDIR);
-        future.complete(null);
     }
 
-    public static void rename(ObjectValue clientConnector, String origin, String destination)
-            throws BallerinaSMBException {
+    public static void closeFileInfoStream(ObjectValue fileInfoStream) {
 
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, SMBUtil.createUrl(clientConnector, origin));
-        propertyMap.put(SmbConstants.PROPERTY_DESTINATION, SMBUtil.createUrl(clientConnector, destination));
+        SMBFileInfoStream stream = (SMBFileInfoStream) fileInfoStream.getNativeData(
+                SmbConstants.SMB_FILE_INFO_STREAM);
+        stream.close();
+    }
+
+    public static void mkdir(ObjectValue clientConnector, String path) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future,
-                remoteFileSystemBaseMessage -> SMBClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.RENAME);
-        future.complete(null);
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeMkdirAction(session, path), path);
     }
 
-    public static void rmdir(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
+    public static void mkdirs(ObjectValue clientConnector, String path) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeMkdirsAction(session, path), path);
+    }
 
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
+    public static ArrayValue deleteMany(ObjectValue clientConnector, ArrayValue paths, boolean continueOnError) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future,
-                remoteFileSystemBaseMessage -> SMBClientHelper.executeGenericAction(future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
+        String[] filePaths = paths.getStringArray();
+        int maxConcurrency = (Integer) clientConnector.getNativeData(SmbConstants.SMB_BATCH_CONCURRENCY);
+        SMBClientHelper.executeUpdateOnPool(clientConnector, future,
+                pool -> SMBClientHelper.executeDeleteManyAction(pool, filePaths, maxConcurrency, continueOnError),
+                filePaths);
+        return null;
+    }
+
+    public static ArrayValue renameMany(ObjectValue clientConnector, ArrayValue renames, boolean continueOnError) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        int count = renames.size();
+        String[] origins = new String[count];
+        String[] destinations = new String[count];
+        for (int i = 0; i < count; i++) {
+            MapValue rename = (MapValue) renames.getRefValue(i);
+            origins[i] = rename.getStringValue(SmbConstants.RENAME_ORIGIN);
+            destinations[i] = rename.getStringValue(SmbConstants.RENAME_DESTINATION);
         }
-        connector.send(null, FtpAction.RMDIR);
-        future.complete(null);
+        int maxConcurrency = (Integer) clientConnector.getNativeData(SmbConstants.SMB_BATCH_CONCURRENCY);
+        String[] changedPaths = new String[count * 2];
+        System.arraycopy(origins, 0, changedPaths, 0, count);
+        System.arraycopy(destinations, 0, changedPaths, count, count);
+        SMBClientHelper.executeUpdateOnPool(clientConnector, future, pool -> SMBClientHelper.executeRenameManyAction(
+                pool, origins, destinations, maxConcurrency, continueOnError), changedPaths);
+        return null;
     }
 
-    public static int size(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
+    public static ArrayValue statMany(ObjectValue clientConnector, ArrayValue paths, boolean continueOnError) {
 
-        String url = SMBUtil.createUrl(clientConnector, filePath);
-        Map<String, String> propertyMap = new HashMap<>(
-                (Map<String, String>) clientConnector.getNativeData(SmbConstants.PROPERTY_MAP));
-        propertyMap.put(SmbConstants.PROPERTY_URI, url);
-        propertyMap.put(SmbConstants.SMB_PASSIVE_MODE, Boolean.TRUE.toString());
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        String[] filePaths = paths.getStringArray();
+        int maxConcurrency = (Integer) clientConnector.getNativeData(SmbConstants.SMB_BATCH_CONCURRENCY);
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        SMBClientHelper.executeOnPool(clientConnector, future, pool -> SMBClientHelper.executeStatManyAction(
+                pool, filePaths, maxConcurrency, continueOnError, cache));
+        return null;
+    }
+
+    public static void rename(ObjectValue clientConnector, String origin, String destination) {
 
         CompletableFuture<Object> future = BRuntime.markAsync();
-        SMBClientListener connectorListener = new SMBClientListener(future, remoteFileSystemBaseMessage ->
-                SMBClientHelper.executeSizeAction(remoteFileSystemBaseMessage, future));
-        RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-        VFSClientConnector connector;
-        try {
-            connector = fileSystemConnectorFactory.createVFSClientConnector(propertyMap, connectorListener);
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
-        }
-        connector.send(null, FtpAction.SIZE);
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeRenameAction(session, origin, destination), origin, destination);
+    }
+
+    public static void rmdir(ObjectValue clientConnector, String filePath) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBClientHelper.executeUpdate(clientConnector, future,
+                session -> SMBClientHelper.executeRmdirAction(session, filePath), filePath);
+    }
+
+    public static long size(ObjectValue clientConnector, String filePath) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        SMBClientHelper.execute(clientConnector, future,
+                session -> SMBClientHelper.executeSizeAction(session, filePath, cache));
         return 0;
     }
+
+    public static MapValue<String, Object> stat(ObjectValue clientConnector, String filePath) {
+
+        CompletableFuture<Object> future = BRuntime.markAsync();
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        SMBClientHelper.execute(clientConnector, future,
+                session -> SMBClientHelper.executeStatAction(session, filePath, cache));
+        return null;
+    }
+
+    public static void close(ObjectValue clientConnector) {
+
+        ((SMBSessionPool) clientConnector.getNativeData(SmbConstants.SMB_SESSION_POOL)).close();
+    }
+
+    public static MapValue<String, Object> getCacheStats(ObjectValue clientConnector) {
+
+        SMBMetadataCache cache = SMBClientHelper.getMetadataCache(clientConnector);
+        Map<String, Object> cacheStats = new HashMap<>();
+        cacheStats.put(SmbConstants.CACHE_HITS, cache.getHits());
+        cacheStats.put(SmbConstants.CACHE_MISSES, cache.getMisses());
+        cacheStats.put(SmbConstants.CACHE_SIZE, (long) cache.size());
+        return SMBUtil.createRecord(SmbConstants.SMB_CACHE_STATS, cacheStats);
+    }
 }
@@ -18,7 +18,9 @@
 
 package org.wso2.ei.b7a.smb.client;
 
-import org.apache.commons.vfs2.FileSystemException;
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileOutputStream;
 import org.ballerinalang.jvm.BallerinaValues;
 import org.ballerinalang.jvm.types.BArrayType;
 import org.ballerinalang.jvm.types.BPackage;
@@ -29,22 +31,28 @@ import org.ballerinalang.stdlib.io.channels.base.Channel;
 import org.ballerinalang.stdlib.io.utils.IOConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.client.SMBBatchExecutor.ItemResult;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.session.SessionAction;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
 import org.wso2.ei.b7a.smb.util.SMBUtil;
 import org.wso2.ei.b7a.smb.util.SmbConstants;
-import org.wso2.transport.remotefilesystem.message.FileInfo;
-import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
-import org.wso2.transport.remotefilesystem.message.RemoteFileSystemMessage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.channels.WritableByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 /**
  * Contains helper methods to invoke SMB actions
@@ -54,6 +62,11 @@ class SMBClientHelper {
     private static final String READABLE_BYTE_CHANNEL = "ReadableByteChannel";
     private static final String PACKAGE_BALLERINA = "ballerina";
     private static final String PACKAGE_IO = "io";
+    private static final String PATH_SEPARATOR = "/";
+    private static final String EXTENSION_SEPARATOR = ".";
+    private static final String FILE_TYPE_FILE = "file";
+    private static final String FILE_TYPE_FOLDER = "folder";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
     private static final Logger log = LoggerFactory.getLogger(SMBClientHelper.class);
 
@@ -61,117 +74,476 @@ class SMBClientHelper {
         // private constructor
     }
 
-    static boolean executeGenericAction(CompletableFuture<Object> future) {
+    /**
+     * Executes an action on a session borrowed from the session pool of the client endpoint and completes the
+     * future with the result of the action, or with an error if the action failed.
+     *
+     * @param clientConnector the client endpoint
+     * @param future          the future to complete
+     * @param action          the action to execute
+     */
+    static void execute(ObjectValue clientConnector, CompletableFuture<Object> future, SessionAction<Object> action) {
+
+        executeOnPool(clientConnector, future, pool -> pool.execute(action));
+    }
+
+    /**
+     * Executes an action which changes resources on a session borrowed from the session pool of the client
+     * endpoint, and drops the cached metadata of the resources once the action is done, whether it succeeded or
+     * not.
+     *
+     * @param clientConnector the client endpoint
+     * @param future          the future to complete
+     * @param action          the action to execute
+     * @param paths           the paths of the resources changed by the action
+     */
+    static void executeUpdate(ObjectValue clientConnector, CompletableFuture<Object> future,
+                              SessionAction<Object> action, String... paths) {
+
+        SMBMetadataCache cache = getMetadataCache(clientConnector);
+        execute(clientConnector, future, session -> {
+            try {
+                return action.execute(session);
+            } finally {
+                cache.invalidate(paths);
+            }
+        });
+    }
+
+    /**
+     * Executes an action which changes resources using sessions of the session pool of the client endpoint, and
+     * drops the cached metadata of the resources once the action is done, whether it succeeded or not.
+     *
+     * @param clientConnector the client endpoint
+     * @param future          the future to complete
+     * @param action          the action to execute
+     * @param paths           the paths of the resources changed by the action
+     */
+    static void executeUpdateOnPool(ObjectValue clientConnector, CompletableFuture<Object> future, PoolAction action,
+                                    String... paths) {
+
+        SMBMetadataCache cache = getMetadataCache(clientConnector);
+        executeOnPool(clientConnector, future, pool -> {
+            try {
+                return action.execute(pool);
+            } finally {
+                cache.invalidate(paths);
+            }
+        });
+    }
+
+    static SMBMetadataCache getMetadataCache(ObjectValue clientConnector) {
+        return (SMBMetadataCache) clientConnector.getNativeData(SmbConstants.SMB_METADATA_CACHE);
+    }
 
-        future.complete(null);
-        return true;
+    /**
+     * Executes an action which borrows sessions from the session pool of the client endpoint by itself, and
+     * completes the future with the result of the action, or with an error if the action failed.
+     *
+     * @param clientConnector the client endpoint
+     * @param future          the future to complete
+     * @param action          the action to execute
+     */
+    static void executeOnPool(ObjectValue clientConnector, CompletableFuture<Object> future, PoolAction action) {
+
+        SMBSessionPool sessionPool = (SMBSessionPool) clientConnector.getNativeData(SmbConstants.SMB_SESSION_POOL);
+        try {
+            future.complete(action.execute(sessionPool));
+        } catch (IOException | BallerinaSMBException e) {
+            log.error(e.getMessage(), e);
+            String detail = null;
+            if (e.getCause() != null) {
+                detail = e.getCause().getMessage();
+            }
+            future.complete(SMBUtil.createError(e.getMessage(), detail));
+        }
     }
 
-    static boolean executeGetAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                    CompletableFuture<Object> future) {
+    static Object executeGetAction(SMBSession session, String path) throws IOException {
 
-        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
-            final InputStream in = ((RemoteFileSystemMessage) remoteFileSystemBaseMessage).getInputStream();
-            ByteChannel byteChannel = new SMBByteChannel(in);
-            Channel channel = new SMBChannel(byteChannel);
+        final InputStream in = session.resolve(path).getInputStream();
+        return createReadableByteChannel(new SMBByteChannel(in));
+    }
+
+    static Object executeRangedGetAction(SMBSession session, String path, long offset, long length)
+            throws IOException, BallerinaSMBException {
 
-            ObjectValue channelStruct = BallerinaValues.createObjectValue(
-                    new BPackage(PACKAGE_BALLERINA, PACKAGE_IO), READABLE_BYTE_CHANNEL);
-            channelStruct.addNativeData(IOConstants.BYTE_CHANNEL_NAME, channel);
-            future.complete(channelStruct);
+        if (offset < 0) {
+            throw new BallerinaSMBException("Invalid offset: " + offset + ". The offset cannot be negative.");
         }
-        return true;
+        return createReadableByteChannel(new SMBRangeChannel(session.resolve(path), offset, length));
+    }
+
+    static Object executeReadAheadGetAction(SMBSessionPool pool, SMBBufferPool buffers, Semaphore readPermits,
+                                            String path, SMBReadAheadConfig config)
+            throws IOException, BallerinaSMBException {
+
+        long length = pool.execute(session -> session.resolve(path).length());
+        return createReadableByteChannel(new SMBParallelReadChannel(pool, buffers, path, length,
+                config.getBufferSize(), config.getOutstandingReads(), readPermits));
     }
 
-    static boolean executeIsDirectoryAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                            CompletableFuture<Object> future) {
+    static Object executeParallelGetAction(SMBSessionPool pool, SMBBufferPool buffers, String path,
+                                           SMBTransferConfig config) throws IOException, BallerinaSMBException {
+
+        long length = pool.execute(session -> session.resolve(path).length());
+        return createReadableByteChannel(new SMBParallelReadChannel(pool, buffers, path, length,
+                config.getChunkSize(), config.getMaxConcurrency(), null));
+    }
 
-        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
-            future.complete(((RemoteFileSystemMessage) remoteFileSystemBaseMessage).isDirectory());
+    static Object executeDownloadAction(SMBSessionPool pool, String path, String localPath, boolean resumable,
+                                        SMBTransferConfig config) throws IOException, BallerinaSMBException {
+
+        if (resumable) {
+            SMBParallelDownloader.resumeDownload(pool, path, Paths.get(localPath), config);
+        } else {
+            SMBParallelDownloader.download(pool, path, Paths.get(localPath), config);
         }
-        return true;
+        return null;
     }
 
-    static boolean executeListAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                     CompletableFuture<Object> future) {
+    static Object executeUploadAction(SMBSessionPool pool, String localPath, String path, boolean resumable,
+                                      SMBTransferConfig config) throws IOException, BallerinaSMBException {
 
-        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
-            RemoteFileSystemMessage message = (RemoteFileSystemMessage) remoteFileSystemBaseMessage;
-            Map<String, FileInfo> childrenInfo = message.getChildrenInfo();
-            ArrayValue arrayValue = new ArrayValue(new BArrayType(SMBUtil.getFileInfoType()));
+        if (resumable) {
+            SMBParallelUploader.resumeUpload(pool, Paths.get(localPath), path, config);
+        } else {
+            SMBParallelUploader.upload(pool, path, Files.newInputStream(Paths.get(localPath)), config);
+        }
+        return null;
+    }
 
-            int i = 0;
-            for (Map.Entry<String, FileInfo> entry : childrenInfo.entrySet()) {
-                Map<String, Object> fileInfoParams = new HashMap<>();
-                FileInfo fileInfo = entry.getValue();
-                fileInfoParams.put("path", fileInfo.getPath());
-                fileInfoParams.put("size", fileInfo.getFileSize());
-                fileInfoParams.put(SmbConstants.LAST_MODIFIED_TIMESTAMP, fileInfo.getLastModifiedTime());
-                fileInfoParams.put("name", fileInfo.getBaseName());
-                fileInfoParams.put("isFolder", fileInfo.isFolder());
-                fileInfoParams.put(SmbConstants.INPUT_CONTENT_IS_FILE_KEY, fileInfo.isFile());
-                fileInfoParams.put("extension", fileInfo.getFileName().getExtension());
-                fileInfoParams.put("publicURIString", fileInfo.getPublicURIString());
-                fileInfoParams.put("fileType", fileInfo.getFileType().getName());
-                fileInfoParams.put("isAttached", fileInfo.isAttached());
-                fileInfoParams.put("isContentOpen", fileInfo.isContentOpen());
-                fileInfoParams.put("isExecutable", fileInfo.isExecutable());
-                fileInfoParams.put("isHidden", fileInfo.isHidden());
-                fileInfoParams.put("isReadable", fileInfo.isReadable());
-                fileInfoParams.put("isWritable", fileInfo.isWritable());
-                fileInfoParams.put("depth", fileInfo.getFileName().getDepth());
-                fileInfoParams.put("scheme", fileInfo.getFileName().getScheme());
-                fileInfoParams.put("uri", fileInfo.getFileName().getURI());
-                fileInfoParams.put("rootURI", fileInfo.getFileName().getRootURI());
-                fileInfoParams.put("friendlyURI", fileInfo.getFileName().getFriendlyURI());
-                try {
-                    fileInfoParams.put("pathDecoded", fileInfo.getFileName().getPathDecoded());
-                } catch (FileSystemException e) {
-                    log.error("Error while evaluating the pathDecoded value.", e);
-                }
+    private static ObjectValue createReadableByteChannel(ByteChannel byteChannel) {
+
+        Channel channel = new SMBChannel(byteChannel);
+        ObjectValue channelStruct = BallerinaValues.createObjectValue(
+                new BPackage(PACKAGE_BALLERINA, PACKAGE_IO), READABLE_BYTE_CHANNEL);
+        channelStruct.addNativeData(IOConstants.BYTE_CHANNEL_NAME, channel);
+        return channelStruct;
+    }
+
+    static Object executeWriteAction(SMBSession session, String path, InputStream content, boolean append)
+            throws IOException {
 
-                final MapValue<String, Object> ballerinaFileInfo = BallerinaValues.createRecordValue(
-                        new BPackage(SmbConstants.SMB_ORG_NAME, SmbConstants.SMB_MODULE_NAME,
-                                SmbConstants.SMB_MODULE_VERSION), SmbConstants.SMB_FILE_INFO, fileInfoParams);
-                arrayValue.add(i++, ballerinaFileInfo);
+        SmbFile file = session.resolve(path);
+        try (InputStream in = content; OutputStream out = new SmbFileOutputStream(file, append)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
             }
-            future.complete(arrayValue);
         }
-        return true;
+        return null;
+    }
+
+    static Object executeParallelPutAction(SMBSessionPool pool, String path, InputStream content,
+                                           SMBTransferConfig config) throws IOException, BallerinaSMBException {
+
+        SMBParallelUploader.upload(pool, path, content, config);
+        return null;
     }
 
-    static boolean executeSizeAction(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage,
-                                     CompletableFuture<Object> future) {
+    static Object executeDeleteAction(SMBSession session, String path) throws IOException {
 
-        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemMessage) {
-            RemoteFileSystemMessage message = (RemoteFileSystemMessage) remoteFileSystemBaseMessage;
-            future.complete((int) message.getSize());
+        session.resolve(path).delete();
+        return null;
+    }
+
+    static Object executeIsDirectoryAction(SMBSession session, String path, SMBMetadataCache cache)
+            throws IOException {
+
+        if (cache.isEnabled()) {
+            return getStat(session, path, cache).isFolder();
         }
-        return true;
+        return session.resolve(path).isDirectory();
     }
 
     /**
-     * Concrete implementation of the {@link Channel}
+     * Gives the metadata of a resource from the cache, or reads it from the server and caches it.
      */
-    private static class SMBChannel extends Channel {
-        SMBChannel(ByteChannel channel) {
-            super(channel);
+    private static SMBFileStat getStat(SMBSession session, String path, SMBMetadataCache cache)
+            throws IOException {
+
+        SMBFileStat stat = cache.getStat(path);
+        if (stat == null) {
+            long generation = cache.generation();
+            stat = SMBFileStat.query(session, path);
+            cache.putStat(path, stat, generation);
         }
+        return stat;
+    }
 
-        @Override
-        public void transfer(int i, int i1, WritableByteChannel writableByteChannel) {
-            throw new UnsupportedOperationException();
+    static Object executeListAction(SMBSession session, String path, SMBFileInfoFields fields,
+                                    SMBMetadataCache cache) throws IOException {
+
+        ArrayValue arrayValue = new ArrayValue(new BArrayType(SMBUtil.getFileInfoType()));
+        if (cache.isEnabled()) {
+            List<Map<String, Object>> listing = cache.getListing(path);
+            if (listing == null) {
+                // Cached listings hold every field, so that they serve any projection
+                long generation = cache.generation();
+                SmbFile[] children = session.resolveDirectory(path).listFiles();
+                listing = new ArrayList<>(children.length);
+                for (SmbFile child : children) {
+                    Map<String, Object> fileInfoParams = getFileInfoParams(child);
+                    listing.add(fileInfoParams);
+                    cache.putStat((String) fileInfoParams.get(SMBFileInfoFields.PATH), SMBFileStat.of(child),
+                            generation);
+                }
+                cache.putListing(path, listing, generation);
+            }
+            int i = 0;
+            for (Map<String, Object> fileInfoParams : listing) {
+                arrayValue.add(i++, SMBUtil.createRecord(SmbConstants.SMB_FILE_INFO, fields.project(fileInfoParams)));
+            }
+            return arrayValue;
         }
 
-        @Override
-        public Channel getChannel() {
-            return this;
+        SmbFile[] children = session.resolveDirectory(path).listFiles();
+        int i = 0;
+        for (SmbFile child : children) {
+            final MapValue<String, Object> ballerinaFileInfo = SMBUtil.createRecord(SmbConstants.SMB_FILE_INFO,
+                    getFileInfoParams(child, fields));
+            arrayValue.add(i++, ballerinaFileInfo);
+        }
+        return arrayValue;
+    }
+
+    static Map<String, Object> getFileInfoParams(SmbFile file) throws SmbException {
+
+        return getFileInfoParams(file, SMBFileInfoFields.ALL);
+    }
+
+    /**
+     * Builds the field values of the FileInfo record of a listed file. The metadata of a listed file comes with the
+     * listing, so the values are computed locally. Fields which are not requested are left at their zero values.
+     *
+     * @param file   the listed file
+     * @param fields the requested fields
+     * @return the field values
+     * @throws SmbException if metadata which was not part of the listing could not be read
+     */
+    static Map<String, Object> getFileInfoParams(SmbFile file, SMBFileInfoFields fields) throws SmbException {
+
+        boolean isFolder = file.isDirectory();
+        String path = file.getURL().getPath();
+        String name = file.getName();
+        if (path.length() > 1 && path.endsWith(PATH_SEPARATOR)) {
+            path = path.substring(0, path.length() - 1);
+            name = name.substring(0, name.length() - 1);
         }
 
-        @Override
-        public boolean remaining() {
-            return false;
+        Map<String, Object> fileInfoParams = fields.newRecordParams();
+        putIf(fields, fileInfoParams, SMBFileInfoFields.PATH, path);
+        putIf(fields, fileInfoParams, SMBFileInfoFields.PATH_DECODED, path);
+        putIf(fields, fileInfoParams, SMBFileInfoFields.NAME, name);
+        putIf(fields, fileInfoParams, SMBFileInfoFields.IS_FOLDER, isFolder);
+        putIf(fields, fileInfoParams, SMBFileInfoFields.FILE_TYPE, isFolder ? FILE_TYPE_FOLDER : FILE_TYPE_FILE);
+        putIf(fields, fileInfoParams, SMBFileInfoFields.IS_ATTACHED, true);
+        if (fields.includes(SMBFileInfoFields.SIZE)) {
+            fileInfoParams.put(SMBFileInfoFields.SIZE, file.length());
+        }
+        if (fields.includes(SMBFileInfoFields.LAST_MODIFIED_TIMESTAMP)) {
+            fileInfoParams.put(SMBFileInfoFields.LAST_MODIFIED_TIMESTAMP, file.lastModified());
+        }
+        if (fields.includes(SMBFileInfoFields.IS_FILE)) {
+            fileInfoParams.put(SMBFileInfoFields.IS_FILE, file.isFile());
+        }
+        if (fields.includes(SMBFileInfoFields.EXTENSION)) {
+            int extensionIndex = name.lastIndexOf(EXTENSION_SEPARATOR);
+            fileInfoParams.put(SMBFileInfoFields.EXTENSION,
+                    extensionIndex < 0 ? "" : name.substring(extensionIndex + 1));
+        }
+        if (fields.includes(SMBFileInfoFields.IS_HIDDEN)) {
+            fileInfoParams.put(SMBFileInfoFields.IS_HIDDEN, file.isHidden());
+        }
+        if (fields.includes(SMBFileInfoFields.IS_READABLE)) {
+            fileInfoParams.put(SMBFileInfoFields.IS_READABLE, file.canRead());
+        }
+        if (fields.includes(SMBFileInfoFields.IS_WRITABLE)) {
+            fileInfoParams.put(SMBFileInfoFields.IS_WRITABLE, file.canWrite());
+        }
+        if (fields.includes(SMBFileInfoFields.DEPTH)) {
+            fileInfoParams.put(SMBFileInfoFields.DEPTH, path.length() > 1 ? path.split(PATH_SEPARATOR).length - 1 : 0);
+        }
+        putIf(fields, fileInfoParams, SMBFileInfoFields.SCHEME, file.getURL().getProtocol());
+        if (fields.includesAnyUri()) {
+            String rootUri = file.getURL().getProtocol() + "://" + file.getURL().getAuthority() + PATH_SEPARATOR;
+            String uri = rootUri + path.substring(1);
+            putIf(fields, fileInfoParams, SMBFileInfoFields.PUBLIC_URI_STRING, uri);
+            putIf(fields, fileInfoParams, SMBFileInfoFields.URI, uri);
+            putIf(fields, fileInfoParams, SMBFileInfoFields.ROOT_URI, rootUri);
+            putIf(fields, fileInfoParams, SMBFileInfoFields.FRIENDLY_URI, uri);
+        }
+        return fileInfoParams;
+    }
+
+    private static void putIf(SMBFileInfoFields fields, Map<String, Object> fileInfoParams, String field,
+                              Object value) {
+
+        if (fields.includes(field)) {
+            fileInfoParams.put(field, value);
+        }
+    }
+
+    static Object executeListStreamAction(SMBSessionPool pool, String path, SMBFileInfoFields fields) {
+
+        // A walk of the children of the directory, which releases its session before the entries wait for the caller
+        return createFileInfoStream(SMBDirectoryWalker.start(pool, path, 1, SMBWalkFilter.ALL, fields, 1));
+    }
+
+    static Object executeWalkAction(SMBSessionPool pool, String path, int maxDepth, SMBWalkFilter filter,
+                                    SMBFileInfoFields fields, int parallelism) {
+
+        return createFileInfoStream(SMBDirectoryWalker.start(pool, path, maxDepth, filter, fields, parallelism));
+    }
+
+    private static ObjectValue createFileInfoStream(SMBFileInfoStream stream) {
+
+        ObjectValue streamObject = SMBUtil.createObject(SmbConstants.SMB_FILE_INFO_STREAM);
+        streamObject.addNativeData(SmbConstants.SMB_FILE_INFO_STREAM, stream);
+        return streamObject;
+    }
+
+    /**
+     * Takes the next entries of a file info stream and converts them to FileInfo records.
+     *
+     * @param stream     the file info stream
+     * @param maxEntries the maximum number of entries to take
+     * @return the FileInfo records, or null if all entries have been taken
+     * @throws IOException           if the listing failed
+     * @throws BallerinaSMBException if interrupted while waiting for entries
+     */
+    static ArrayValue nextFileInfos(SMBFileInfoStream stream, int maxEntries)
+            throws IOException, BallerinaSMBException {
+
+        List<Map<String, Object>> entries = stream.next(maxEntries);
+        if (entries == null) {
+            return null;
+        }
+        ArrayValue arrayValue = new ArrayValue(new BArrayType(SMBUtil.getFileInfoType()));
+        int i = 0;
+        for (Map<String, Object> entry : entries) {
+            arrayValue.add(i++, SMBUtil.createRecord(SmbConstants.SMB_FILE_INFO, entry));
+        }
+        return arrayValue;
+    }
+
+    static Object executeMkdirAction(SMBSession session, String path) throws IOException {
+
+        session.resolveDirectory(path).mkdir();
+        return null;
+    }
+
+    static Object executeRenameAction(SMBSession session, String origin, String destination) throws IOException {
+
+        session.resolve(origin).renameTo(session.resolve(destination));
+        return null;
+    }
+
+    static Object executeRmdirAction(SMBSession session, String path) throws IOException {
+
+        session.resolveDirectory(path).delete();
+        return null;
+    }
+
+    static Object executeMkdirsAction(SMBSession session, String path) throws IOException {
+
+        SmbFile directory = session.resolveDirectory(path);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        } else if (!directory.isDirectory()) {
+            throw new IOException("Cannot create directory " + path + ". A file with the same name exists.");
+        }
+        return null;
+    }
+
+    static Object executeDeleteManyAction(SMBSessionPool pool, String[] paths, int maxConcurrency,
+                                          boolean continueOnError) throws IOException, BallerinaSMBException {
+
+        ItemResult[] results = SMBBatchExecutor.run(pool, paths.length, maxConcurrency, continueOnError,
+                (session, index) -> {
+                    session.resolve(paths[index]).delete();
+                    return null;
+                });
+        return createBatchResults(paths, results);
+    }
+
+    static Object executeRenameManyAction(SMBSessionPool pool, String[] origins, String[] destinations,
+                                          int maxConcurrency, boolean continueOnError)
+            throws IOException, BallerinaSMBException {
+
+        ItemResult[] results = SMBBatchExecutor.run(pool, origins.length, maxConcurrency, continueOnError,
+                (session, index) -> {
+                    session.resolve(origins[index]).renameTo(session.resolve(destinations[index]));
+                    return null;
+                });
+        return createBatchResults(origins, results);
+    }
+
+    static Object executeStatManyAction(SMBSessionPool pool, String[] paths, int maxConcurrency,
+                                        boolean continueOnError, SMBMetadataCache cache)
+            throws IOException, BallerinaSMBException {
+
+        ItemResult[] results = SMBBatchExecutor.run(pool, paths.length, maxConcurrency, continueOnError,
+                (session, index) -> getStat(session, paths[index], cache).toRecordParams(paths[index]));
+        ArrayValue arrayValue = new ArrayValue(new BArrayType(SMBUtil.getRecordType(SmbConstants.SMB_STAT_RESULT)));
+        for (int i = 0; i < results.length; i++) {
+            Map<String, Object> statResult = createBatchResultParams(paths[i], results[i]);
+            if (results[i].isSuccess()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fileStat = (Map<String, Object>) results[i].getValue();
+                statResult.put(SmbConstants.STAT_RESULT_STAT,
+                        SMBUtil.createRecord(SmbConstants.SMB_FILE_STAT, fileStat));
+            }
+            arrayValue.add(i, SMBUtil.createRecord(SmbConstants.SMB_STAT_RESULT, statResult));
+        }
+        return arrayValue;
+    }
+
+    private static ArrayValue createBatchResults(String[] paths, ItemResult[] results) {
+
+        ArrayValue arrayValue = new ArrayValue(new BArrayType(SMBUtil.getRecordType(SmbConstants.SMB_BATCH_RESULT)));
+        for (int i = 0; i < results.length; i++) {
+            arrayValue.add(i, SMBUtil.createRecord(SmbConstants.SMB_BATCH_RESULT,
+                    createBatchResultParams(paths[i], results[i])));
+        }
+        return arrayValue;
+    }
+
+    private static Map<String, Object> createBatchResultParams(String path, ItemResult result) {
+
+        Map<String, Object> resultParams = new HashMap<>();
+        resultParams.put(SmbConstants.BATCH_RESULT_PATH, path);
+        resultParams.put(SmbConstants.BATCH_RESULT_SUCCESS, result.isSuccess());
+        resultParams.put(SmbConstants.BATCH_RESULT_ERROR_MESSAGE, result.isSuccess() ? "" : result.getErrorMessage());
+        return resultParams;
+    }
+
+    static Object executeSizeAction(SMBSession session, String path, SMBMetadataCache cache) throws IOException {
+
+        if (cache.isEnabled()) {
+            SMBFileStat stat = getStat(session, path, cache);
+            if (!stat.exists()) {
+                throw new IOException("File not found: " + path);
+            }
+            return stat.getSize();
         }
+        return session.resolve(path).length();
+    }
+
+    static Object executeStatAction(SMBSession session, String path, SMBMetadataCache cache) throws IOException {
+
+        return SMBUtil.createRecord(SmbConstants.SMB_FILE_STAT, getStat(session, path, cache).toRecordParams(path));
+    }
+
+    /**
+     * An action which works on the session pool of a client endpoint, for operations that use several sessions.
+     */
+    @FunctionalInterface
+    interface PoolAction {
+
+        Object execute(SMBSessionPool pool) throws IOException, BallerinaSMBException;
     }
 
     /**
@@ -179,17 +551,44 @@ class SMBClientHelper {
      */
     private static class SMBByteChannel implements ByteChannel {
 
-        private InputStream inputStream;
-        private ReadableByteChannel inputChannel;
+        private final InputStream inputStream;
+        private byte[] readBuffer;
+        private boolean open = true;
 
         SMBByteChannel(InputStream inputStream) {
             this.inputStream = inputStream;
-            this.inputChannel = Channels.newChannel(inputStream);
         }
 
+        /**
+         * Reads straight into the array of heap buffers. Content for direct buffers is staged in a buffer which
+         * is allocated once per channel.
+         */
         @Override
         public int read(ByteBuffer dst) throws IOException {
-            return inputChannel.read(dst);
+
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            int count = dst.remaining();
+            if (count == 0) {
+                return 0;
+            }
+            int read;
+            if (dst.hasArray()) {
+                read = inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), count);
+                if (read > 0) {
+                    dst.position(dst.position() + read);
+                }
+            } else {
+                if (readBuffer == null) {
+                    readBuffer = new byte[COPY_BUFFER_SIZE];
+                }
+                read = inputStream.read(readBuffer, 0, Math.min(count, readBuffer.length));
+                if (read > 0) {
+                    dst.put(readBuffer, 0, read);
+                }
+            }
+            return read;
         }
 
         @Override
@@ -199,13 +598,16 @@ class SMBClientHelper {
 
         @Override
         public boolean isOpen() {
-            return inputChannel.isOpen();
+            return open;
         }
 
         @Override
         public void close() throws IOException {
-            inputChannel.close();
-            inputStream.close();
+
+            if (open) {
+                open = false;
+                inputStream.close();
+            }
         }
     }
 }
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks a directory tree on workers shared by all walks. The directories found are queued, and up to the
+ * parallelism of the walk workers take them from the queue and list them on pooled sessions, so independent
+ * branches of the tree are listed at the same time. The entries which pass the filter are added to a
+ * {@link SMBFileInfoStream} as they are found, once the session the directory was listed over is released, so a
+ * caller which reads the stream slowly holds no session. A directory which cannot be listed is skipped, and the
+ * directories skipped are reported by the stream once all other entries are taken.
+ */
+class SMBDirectoryWalker {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBDirectoryWalker.class);
+    private static final String PATH_SEPARATOR = "/";
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smb-directory-walker-" + WORKER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SMBSessionPool pool;
+    private final String root;
+    private final int maxDepth;
+    private final SMBWalkFilter filter;
+    private final SMBFileInfoFields fields;
+    private final int parallelism;
+    private final SMBFileInfoStream stream = new SMBFileInfoStream();
+    private final Queue<Directory> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private volatile Exception rootFailure;
+
+    private SMBDirectoryWalker(SMBSessionPool pool, String root, int maxDepth, SMBWalkFilter filter,
+                               SMBFileInfoFields fields, int parallelism) {
+
+        this.pool = pool;
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.filter = filter;
+        this.fields = fields;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Starts a walk in the background.
+     *
+     * @param pool        the session pool of the endpoint
+     * @param path        the path of the directory to walk
+     * @param maxDepth    the depth of the deepest entries returned, where the children of the directory are at
+     *                    depth 1, 0 to return no entries, or a negative value to walk the whole tree
+     * @param filter      the filter of the returned entries
+     * @param fields      the fields of the returned entries
+     * @param parallelism the maximum number of directories listed at the same time
+     * @return the stream the entries are added to
+     */
+    static SMBFileInfoStream start(SMBSessionPool pool, String path, int maxDepth, SMBWalkFilter filter,
+                                   SMBFileInfoFields fields, int parallelism) {
+
+        int boundedParallelism = Math.max(1, Math.min(parallelism, pool.getMaxActiveSessions()));
+        SMBDirectoryWalker walker = new SMBDirectoryWalker(pool, path, maxDepth, filter, fields, boundedParallelism);
+        if (maxDepth == 0) {
+            // Not even the children of the directory are deep enough to be returned
+            walker.stream.finish(null);
+        } else {
+            walker.enqueue(new Directory(path, 1));
+        }
+        return walker.stream;
+    }
+
+    private void enqueue(Directory directory) {
+
+        remaining.incrementAndGet();
+        pending.add(directory);
+        startWorkers();
+    }
+
+    private void startWorkers() {
+
+        int active;
+        while (!pending.isEmpty() && (active = activeWorkers.get()) < parallelism) {
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                WORKERS.execute(this::work);
+            }
+        }
+    }
+
+    /**
+     * Lists queued directories until the queue is empty. A worker which finds the queue empty stops, and workers
+     * are started again as subdirectories are queued.
+     */
+    private void work() {
+
+        try {
+            Directory directory;
+            while (!stream.isClosed() && (directory = pending.poll()) != null) {
+                list(directory);
+                if (remaining.decrementAndGet() == 0) {
+                    stream.finish(walkFailure());
+                }
+            }
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // A directory may have been queued after the queue was found empty, but before this worker stopped
+        if (!stream.isClosed()) {
+            startWorkers();
+        }
+    }
+
+    private void list(Directory directory) {
+
+        SmbFile[] children;
+        try {
+            children = pool.execute(session -> session.resolveDirectory(directory.path).listFiles());
+        } catch (IOException | BallerinaSMBException e) {
+            skip(directory, e);
+            return;
+        }
+        try {
+            for (SmbFile child : children) {
+                boolean isFolder = child.isDirectory();
+                String name = isFolder ? child.getName().substring(0, child.getName().length() - 1)
+                        : child.getName();
+                if (isFolder && (maxDepth < 0 || directory.depth < maxDepth)) {
+                    enqueue(new Directory(directory.childPath(name), directory.depth + 1));
+                }
+                if (filter.matches(child, name, isFolder)
+                        && !stream.add(SMBClientHelper.getFileInfoParams(child, fields))) {
+                    return;
+                }
+            }
+        } catch (IOException | BallerinaSMBException e) {
+            skip(directory, e);
+        }
+    }
+
+    private void skip(Directory directory, Exception e) {
+
+        if (directory.depth == 1) {
+            rootFailure = e;
+            log.error("Walk of {} failed: {}", directory.path, e.getMessage());
+            return;
+        }
+        log.warn("Skipped {} in the walk of {}: {}", directory.path, root, e.getMessage());
+        if (failureCount.incrementAndGet() <= MAX_REPORTED_FAILURES) {
+            failures.add(directory.path + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private Exception walkFailure() {
+
+        if (rootFailure != null) {
+            return rootFailure;
+        }
+        int skipped = failureCount.get();
+        if (skipped == 0) {
+            return null;
+        }
+        List<String> reported = new ArrayList<>(failures);
+        return new BallerinaSMBException("Walk of " + root + " skipped " + skipped
+                + " directories which could not be listed: " + String.join(", ", reported)
+                + (skipped > reported.size() ? ", ..." : ""));
+    }
+
+    /**
+     * A directory of the tree, with its depth below the root of the walk.
+     */
+    private static class Directory {
+
+        private final String path;
+        private final int depth;
+
+        Directory(String path, int depth) {
+
+            this.path = path;
+            this.depth = depth;
+        }
+
+        private String childPath(String name) {
+            return path.endsWith(PATH_SEPARATOR) ? path + name : path + PATH_SEPARATOR + name;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of the FileInfo records returned by a listing which are filled in. Fields which are not requested
+ * are not computed, and are set to the zero value of their type since the FileInfo record requires every field.
+ */
+class SMBFileInfoFields {
+
+    static final String PATH = "path";
+    static final String SIZE = "size";
+    static final String LAST_MODIFIED_TIMESTAMP = "lastModifiedTimestamp";
+    static final String NAME = "name";
+    static final String IS_FOLDER = "isFolder";
+    static final String IS_FILE = "isFile";
+    static final String PATH_DECODED = "pathDecoded";
+    static final String EXTENSION = "extension";
+    static final String PUBLIC_URI_STRING = "publicURIString";
+    static final String FILE_TYPE = "fileType";
+    static final String IS_ATTACHED = "isAttached";
+    static final String IS_CONTENT_OPEN = "isContentOpen";
+    static final String IS_EXECUTABLE = "isExecutable";
+    static final String IS_HIDDEN = "isHidden";
+    static final String IS_READABLE = "isReadable";
+    static final String IS_WRITABLE = "isWritable";
+    static final String DEPTH = "depth";
+    static final String SCHEME = "scheme";
+    static final String URI = "uri";
+    static final String ROOT_URI = "rootURI";
+    static final String FRIENDLY_URI = "friendlyURI";
+
+    private static final Map<String, Object> ZERO_VALUES = new HashMap<>();
+    private static final Set<String> URI_FIELDS = new HashSet<>(
+            Arrays.asList(PUBLIC_URI_STRING, URI, ROOT_URI, FRIENDLY_URI));
+
+    static {
+        for (String field : Arrays.asList(PATH, NAME, PATH_DECODED, EXTENSION, PUBLIC_URI_STRING, FILE_TYPE, SCHEME,
+                URI, ROOT_URI, FRIENDLY_URI)) {
+            ZERO_VALUES.put(field, "");
+        }
+        for (String field : Arrays.asList(SIZE, LAST_MODIFIED_TIMESTAMP, DEPTH)) {
+            ZERO_VALUES.put(field, 0L);
+        }
+        // SMB reports neither whether a file is open nor whether it is executable, so those fields stay false
+        for (String field : Arrays.asList(IS_FOLDER, IS_FILE, IS_ATTACHED, IS_CONTENT_OPEN, IS_EXECUTABLE, IS_HIDDEN,
+                IS_READABLE, IS_WRITABLE)) {
+            ZERO_VALUES.put(field, false);
+        }
+    }
+
+    /**
+     * All the fields of the FileInfo record.
+     */
+    static final SMBFileInfoFields ALL = new SMBFileInfoFields(ZERO_VALUES.keySet());
+
+    private final Set<String> fields;
+    private final boolean anyUri;
+
+    private SMBFileInfoFields(Set<String> fields) {
+
+        this.fields = Collections.unmodifiableSet(fields);
+        this.anyUri = !Collections.disjoint(fields, URI_FIELDS);
+    }
+
+    /**
+     * Creates the projection from the requested field names.
+     *
+     * @param fieldNames the names of the FileInfo fields to fill in, or an empty array for all fields
+     * @return the projection
+     * @throws BallerinaSMBException if a name is not a field of the FileInfo record
+     */
+    static SMBFileInfoFields of(String[] fieldNames) throws BallerinaSMBException {
+
+        if (fieldNames.length == 0) {
+            return ALL;
+        }
+        Set<String> fields = new HashSet<>();
+        for (String fieldName : fieldNames) {
+            if (!ZERO_VALUES.containsKey(fieldName)) {
+                throw new BallerinaSMBException("Unknown FileInfo field: " + fieldName);
+            }
+            fields.add(fieldName);
+        }
+        return new SMBFileInfoFields(fields);
+    }
+
+    boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * Whether any of the fields derived from the URI of the file is requested.
+     *
+     * @return true if a URI field is requested
+     */
+    boolean includesAnyUri() {
+        return anyUri;
+    }
+
+    /**
+     * Gives the requested fields of FileInfo field values with all fields filled in.
+     *
+     * @param allFields the field values with all fields filled in
+     * @return a new map of the field values, where the fields which are not requested are set to their zero values
+     */
+    Map<String, Object> project(Map<String, Object> allFields) {
+
+        if (this == ALL) {
+            return new HashMap<>(allFields);
+        }
+        Map<String, Object> recordParams = newRecordParams();
+        for (String field : fields) {
+            recordParams.put(field, allFields.get(field));
+        }
+        return recordParams;
+    }
+
+    /**
+     * Gives a new map of the FileInfo fields set to their zero values, to fill in the requested fields.
+     *
+     * @return the map of zero values
+     */
+    Map<String, Object> newRecordParams() {
+        return new HashMap<>(ZERO_VALUES);
+    }
+}
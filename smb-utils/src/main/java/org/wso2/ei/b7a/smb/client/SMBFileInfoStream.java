@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of file entries between the threads which fetch them from the server and the caller which reads
+ * them. Producers wait while the queue is full, so the entries held in memory do not depend on the size of the
+ * listing, and the caller gets the first entries as soon as they arrive.
+ */
+class SMBFileInfoStream {
+
+    private static final int CAPACITY = 4096;
+    private static final long OFFER_WAIT_MILLIS = 100;
+    private static final Map<String, Object> END = Collections.emptyMap();
+
+    private final BlockingQueue<Map<String, Object>> entries = new ArrayBlockingQueue<>(CAPACITY);
+    private volatile boolean closed;
+    private volatile Exception failure;
+    private boolean drained;
+
+    /**
+     * Adds an entry, waiting while the stream is full.
+     *
+     * @param entry the field values of the FileInfo record of the entry
+     * @return false if the stream was closed by the caller and the producer should stop
+     * @throws BallerinaSMBException if interrupted while waiting
+     */
+    boolean add(Map<String, Object> entry) throws BallerinaSMBException {
+
+        try {
+            while (!closed) {
+                if (entries.offer(entry, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BallerinaSMBException("Interrupted while listing files", e);
+        }
+    }
+
+    /**
+     * Marks the end of the entries.
+     *
+     * @param error the failure which ended the listing, or null if all entries were added
+     */
+    void finish(Exception error) {
+
+        failure = error;
+        try {
+            add(END);
+        } catch (BallerinaSMBException e) {
+            closed = true;
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Takes the next entries, waiting until at least one entry is available.
+     *
+     * @param maxEntries the maximum number of entries to take
+     * @return the entries, or null if all entries have been taken
+     * @throws IOException           if the listing failed, once the entries added before the failure are taken
+     * @throws BallerinaSMBException if interrupted while waiting
+     */
+    List<Map<String, Object>> next(int maxEntries) throws IOException, BallerinaSMBException {
+
+        if (closed) {
+            return null;
+        }
+        if (!drained) {
+            List<Map<String, Object>> batch = new ArrayList<>(Math.min(maxEntries, CAPACITY));
+            try {
+                Map<String, Object> entry = entries.take();
+                while (entry != END) {
+                    batch.add(entry);
+                    if (batch.size() >= maxEntries || (entry = entries.poll()) == null) {
+                        return batch;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BallerinaSMBException("Interrupted while listing files", e);
+            }
+            drained = true;
+            if (!batch.isEmpty()) {
+                return batch;
+            }
+        }
+        Exception error = failure;
+        if (error != null) {
+            failure = null;
+            throw new IOException(error.getMessage(), error);
+        }
+        return null;
+    }
+
+    /**
+     * Closes the stream. Entries which were not taken are dropped, and the producers stop at their next entry.
+     */
+    void close() {
+
+        if (!closed) {
+            closed = true;
+            entries.clear();
+        }
+    }
+}
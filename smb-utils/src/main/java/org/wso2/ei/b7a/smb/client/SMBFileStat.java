@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metadata of a remote resource, as returned in a FileStat record
+ */
+class SMBFileStat {
+
+    private static final SMBFileStat NOT_FOUND = new SMBFileStat(false, false, 0, 0, 0, 0);
+    private static final String PATH_SEPARATOR = "/";
+    private static final String WILDCARD_CHARACTERS = "*?";
+
+    private final boolean exists;
+    private final boolean folder;
+    private final long size;
+    private final long lastModified;
+    private final long created;
+    private final int attributes;
+
+    private SMBFileStat(boolean exists, boolean folder, long size, long lastModified, long created, int attributes) {
+
+        this.exists = exists;
+        this.folder = folder;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.created = created;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Reads the metadata of a resource in a single request, by listing the parent directory for the name of the
+     * resource. Querying the resource itself takes separate requests for its basic and its standard information.
+     * Share roots, and names which would be taken as a wildcard pattern, are queried directly.
+     *
+     * @param session the session to read with
+     * @param path    the path of the resource
+     * @return the metadata
+     * @throws IOException if the metadata could not be read
+     */
+    static SMBFileStat query(SMBSession session, String path) throws IOException {
+
+        String filePath = path;
+        while (filePath.length() > 1 && filePath.endsWith(PATH_SEPARATOR)) {
+            filePath = filePath.substring(0, filePath.length() - 1);
+        }
+        int separator = filePath.lastIndexOf(PATH_SEPARATOR);
+        String name = filePath.substring(separator + 1);
+        String parentPath = separator > 0 ? filePath.substring(0, separator) : "";
+        if (parentPath.isEmpty() || name.isEmpty() || containsWildcard(name)) {
+            return of(session.resolve(path));
+        }
+
+        SmbFile[] matches;
+        try {
+            matches = session.resolveDirectory(parentPath).listFiles(name);
+        } catch (SmbException e) {
+            if (isNotFound(e)) {
+                return NOT_FOUND;
+            }
+            throw e;
+        }
+        for (SmbFile match : matches) {
+            if (name.equalsIgnoreCase(stripSeparator(match.getName()))) {
+                return of(match);
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static boolean containsWildcard(String name) {
+
+        for (int i = 0; i < name.length(); i++) {
+            if (WILDCARD_CHARACTERS.indexOf(name.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNotFound(SmbException e) {
+
+        int status = e.getNtStatus();
+        return status == SmbException.NT_STATUS_NO_SUCH_FILE || status == SmbException.NT_STATUS_OBJECT_NAME_NOT_FOUND
+                || status == SmbException.NT_STATUS_OBJECT_PATH_NOT_FOUND;
+    }
+
+    private static String stripSeparator(String name) {
+        return name.endsWith(PATH_SEPARATOR) ? name.substring(0, name.length() - 1) : name;
+    }
+
+    /**
+     * Reads the metadata of a resource. Free of requests for a resource returned by a listing, whose metadata is
+     * held by the resource.
+     *
+     * @param file the resource
+     * @return the metadata
+     * @throws SmbException if the metadata could not be read
+     */
+    static SMBFileStat of(SmbFile file) throws SmbException {
+
+        if (!file.exists()) {
+            return NOT_FOUND;
+        }
+        return new SMBFileStat(true, file.isDirectory(), file.length(), file.lastModified(), file.createTime(),
+                file.getAttributes());
+    }
+
+    boolean exists() {
+        return exists;
+    }
+
+    boolean isFolder() {
+        return folder;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    long getCreated() {
+        return created;
+    }
+
+    int getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Gives the field values of the FileStat record of the resource.
+     *
+     * @param path the path of the resource
+     * @return the field values
+     */
+    Map<String, Object> toRecordParams(String path) {
+
+        Map<String, Object> fileStatParams = new HashMap<>();
+        fileStatParams.put("path", path);
+        fileStatParams.put("exists", exists);
+        fileStatParams.put("isFolder", folder);
+        fileStatParams.put("size", size);
+        fileStatParams.put(SmbConstants.LAST_MODIFIED_TIMESTAMP, lastModified);
+        fileStatParams.put(SmbConstants.CREATED_TIMESTAMP, created);
+        fileStatParams.put(SmbConstants.FILE_ATTRIBUTES, (long) attributes);
+        return fileStatParams;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the metadata and the directory listings read by a client endpoint. Entries expire after a time to
+ * live, and the least recently used entries are evicted when the cache is full. Missing resources are cached as
+ * well, with their own time to live. The operations of the endpoint which change a resource invalidate its
+ * entries, and those of its parent directory and of anything under it.
+ * <p>
+ * Each invalidation starts a new generation of the cache. A value read from the server is only cached if no
+ * invalidation of its path happened since the read started, so a read which overlaps a change cannot put back
+ * the metadata from before the change.
+ */
+class SMBMetadataCache {
+
+    /**
+     * A cache which never holds an entry, used when caching is disabled.
+     */
+    static final SMBMetadataCache DISABLED = new SMBMetadataCache(0, 0, 0);
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final char AFTER_PATH_SEPARATOR = (char) ('/' + 1);
+    private static final String STAT_PREFIX = "S";
+    private static final String LISTING_PREFIX = "L";
+    private static final int MAX_RECENT_INVALIDATIONS = 1024;
+
+    private final int maxEntries;
+    private final long ttlInMillis;
+    private final long negativeTtlInMillis;
+    private final Map<String, Entry> entries;
+    private final NavigableMap<String, Entry> sortedEntries = new TreeMap<>();
+    private final Deque<Invalidation> recentInvalidations = new ArrayDeque<>();
+    private long generation;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private SMBMetadataCache(int maxEntries, long ttlInMillis, long negativeTtlInMillis) {
+
+        this.maxEntries = maxEntries;
+        this.ttlInMillis = ttlInMillis;
+        this.negativeTtlInMillis = negativeTtlInMillis;
+        // Entries are kept in access order for eviction, and in path order for the invalidation of subtrees
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+
+                if (size() > SMBMetadataCache.this.maxEntries) {
+                    sortedEntries.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates the cache from the `MetadataCacheConfig` record of an endpoint configuration.
+     *
+     * @param cacheConfig the metadata cache record, or null to disable caching
+     * @return the cache
+     */
+    static SMBMetadataCache from(MapValue cacheConfig) {
+
+        if (cacheConfig == null || !cacheConfig.getBooleanValue(SmbConstants.CACHE_ENABLED)) {
+            return DISABLED;
+        }
+        return new SMBMetadataCache(
+                Math.toIntExact(cacheConfig.getIntValue(SmbConstants.CACHE_MAX_ENTRIES)),
+                cacheConfig.getIntValue(SmbConstants.CACHE_TTL),
+                cacheConfig.getIntValue(SmbConstants.CACHE_NEGATIVE_TTL));
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Gives the current generation of the cache, to be taken before reading a value from the server and passed
+     * when the value is cached.
+     *
+     * @return the current generation
+     */
+    long generation() {
+
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    SMBFileStat getStat(String path) {
+        return (SMBFileStat) get(STAT_PREFIX + normalize(path));
+    }
+
+    void putStat(String path, SMBFileStat stat, long readGeneration) {
+        put(STAT_PREFIX, normalize(path), stat, stat.exists() ? ttlInMillis : negativeTtlInMillis, readGeneration);
+    }
+
+    /**
+     * Gives the cached listing of a directory.
+     *
+     * @param path the path of the directory
+     * @return the field values of the FileInfo records of all the fields of the children, or null if the listing
+     * is not cached
+     */
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> getListing(String path) {
+        return (List<Map<String, Object>>) get(LISTING_PREFIX + normalize(path));
+    }
+
+    void putListing(String path, List<Map<String, Object>> children, long readGeneration) {
+        put(LISTING_PREFIX, normalize(path), children, ttlInMillis, readGeneration);
+    }
+
+    private Object get(String key) {
+
+        if (!isEnabled()) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= System.currentTimeMillis()) {
+                remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    private void put(String prefix, String path, Object value, long ttl, long readGeneration) {
+
+        if (!isEnabled() || ttl <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            if (invalidatedSince(prefix, path, readGeneration)) {
+                return;
+            }
+            Entry entry = new Entry(value, System.currentTimeMillis() + ttl);
+            entries.put(prefix + path, entry);
+            sortedEntries.put(prefix + path, entry);
+        }
+    }
+
+    /**
+     * Checks whether an entry was invalidated after the given generation. Entries read before the oldest
+     * invalidation still recorded are taken as invalidated.
+     */
+    private boolean invalidatedSince(String prefix, String path, long readGeneration) {
+
+        if (readGeneration == generation) {
+            return false;
+        }
+        Invalidation oldest = recentInvalidations.peekFirst();
+        if (oldest == null || oldest.generation > readGeneration + 1) {
+            return true;
+        }
+        for (Invalidation invalidation : recentInvalidations) {
+            if (invalidation.generation > readGeneration && invalidation.affects(prefix, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops the entries of changed resources, the listings of their parent directories and the entries of
+     * everything under them.
+     *
+     * @param paths the paths of the changed resources
+     */
+    void invalidate(String... paths) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        List<String> normalizedPaths = new ArrayList<>(paths.length);
+        for (String path : paths) {
+            normalizedPaths.add(normalize(path));
+        }
+        synchronized (entries) {
+            for (String normalized : normalizedPaths) {
+                remove(LISTING_PREFIX + parentOf(normalized));
+                for (String prefix : new String[]{STAT_PREFIX, LISTING_PREFIX}) {
+                    remove(prefix + normalized);
+                    String descendants = prefix + (normalized.equals(PATH_SEPARATOR) ? "" : normalized);
+                    List<String> keys = new ArrayList<>(sortedEntries.subMap(descendants + PATH_SEPARATOR, true,
+                            descendants + AFTER_PATH_SEPARATOR, false).keySet());
+                    keys.forEach(this::remove);
+                }
+            }
+            recentInvalidations.addLast(new Invalidation(++generation, normalizedPaths));
+            if (recentInvalidations.size() > MAX_RECENT_INVALIDATIONS) {
+                recentInvalidations.removeFirst();
+            }
+        }
+    }
+
+    private void remove(String key) {
+
+        entries.remove(key);
+        sortedEntries.remove(key);
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    int size() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static String normalize(String path) {
+
+        String normalized = path.startsWith(PATH_SEPARATOR) ? path : PATH_SEPARATOR + path;
+        while (normalized.length() > 1 && normalized.endsWith(PATH_SEPARATOR)) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private static String parentOf(String normalizedPath) {
+
+        int separator = normalizedPath.lastIndexOf(PATH_SEPARATOR);
+        return separator <= 0 ? PATH_SEPARATOR : normalizedPath.substring(0, separator);
+    }
+
+    private static boolean isSameOrUnder(String path, String ancestor) {
+
+        return path.equals(ancestor) || PATH_SEPARATOR.equals(ancestor)
+                || (path.startsWith(ancestor) && path.charAt(ancestor.length()) == PATH_SEPARATOR.charAt(0));
+    }
+
+    /**
+     * A cached value and its expiry time.
+     */
+    private static class Entry {
+
+        private final Object value;
+        private final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The paths changed by an invalidation, and the generation it started.
+     */
+    private static class Invalidation {
+
+        private final long generation;
+        private final List<String> paths;
+
+        Invalidation(long generation, List<String> paths) {
+
+            this.generation = generation;
+            this.paths = paths;
+        }
+
+        /**
+         * Checks whether the invalidation dropped, or would have dropped, the entry of a path.
+         */
+        private boolean affects(String prefix, String path) {
+
+            for (String changed : paths) {
+                if (isSameOrUnder(path, changed) || (LISTING_PREFIX.equals(prefix) && path.equals(parentOf(changed)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
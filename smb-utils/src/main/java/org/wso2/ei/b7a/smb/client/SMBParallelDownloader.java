@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbRandomAccessFile;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a remote file as fixed size chunks which are read concurrently, each worker on its own pooled
+ * session. SMB reads are request/response, so keeping several reads in flight is what fills a high latency link.
+ */
+class SMBParallelDownloader {
+
+    private static final String READ_MODE = "r";
+    private static final ThreadLocal<byte[]> STAGING_BUFFER = ThreadLocal.withInitial(() -> new byte[0]);
+
+    private SMBParallelDownloader() {
+        // private constructor
+    }
+
+    /**
+     * Downloads a remote file to a local file. Workers take the next chunk from a shared counter and write it at
+     * its offset in the local file, so chunks complete in any order. The local file is deleted if the download
+     * fails.
+     *
+     * @param pool      the session pool of the endpoint
+     * @param path      the path of the remote file
+     * @param localFile the local file to write, replaced if it exists
+     * @param config    the transfer configuration
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the remote file could not be read or the local file could not be written
+     */
+    static void download(SMBSessionPool pool, String path, Path localFile, SMBTransferConfig config)
+            throws BallerinaSMBException, IOException {
+
+        long length = pool.execute(session -> session.resolve(path).length());
+        boolean completed = false;
+        try {
+            transfer(pool, path, length, localFile, config, null);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(localFile);
+            }
+        }
+    }
+
+    /**
+     * Downloads a remote file to a local file, continuing an earlier attempt which failed. The progress is
+     * recorded in a state file next to the local file. An earlier attempt is only continued if the size and the
+     * modification time of the remote file are unchanged. The local file and the state file are kept if the
+     * download fails, so that it can be resumed again.
+     *
+     * @param pool      the session pool of the endpoint
+     * @param path      the path of the remote file
+     * @param localFile the local file to write
+     * @param config    the transfer configuration
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the remote file could not be read or the local file could not be written
+     */
+    static void resumeDownload(SMBSessionPool pool, String path, Path localFile, SMBTransferConfig config)
+            throws BallerinaSMBException, IOException {
+
+        long[] attributes = pool.execute(session -> {
+            SmbFile file = session.resolve(path);
+            return new long[]{file.length(), file.lastModified()};
+        });
+        SMBTransferCheckpoint checkpoint = new SMBTransferCheckpoint(localFile, path, attributes[0], attributes[1]);
+        if (checkpoint.restore() && (!Files.exists(localFile) || Files.size(localFile) < checkpoint.getBytesDone())) {
+            checkpoint.reset();
+        }
+        transfer(pool, path, attributes[0], localFile, config, checkpoint);
+        checkpoint.delete();
+    }
+
+    private static void transfer(SMBSessionPool pool, String path, long length, Path localFile,
+                                 SMBTransferConfig config, SMBTransferCheckpoint checkpoint)
+            throws BallerinaSMBException, IOException {
+
+        long start = checkpoint == null ? 0 : checkpoint.getBytesDone();
+        int chunkSize = config.getChunkSize();
+        long chunkCount = (length - start + chunkSize - 1) / chunkSize;
+        int workerCount = (int) Math.max(1, Math.min(chunkCount, workerLimit(pool, config)));
+
+        AtomicLong nextChunk = new AtomicLong();
+        AtomicBoolean aborted = new AtomicBoolean();
+        OpenOption[] options = start > 0
+                ? new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE}
+                : new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING};
+        try (FileChannel out = FileChannel.open(localFile, options)) {
+            if (start > 0) {
+                out.truncate(length);
+            }
+            List<CompletableFuture<Object>> workers = new ArrayList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(pool.submit(session -> {
+                    try {
+                        downloadChunks(session, path, start, length, chunkSize, nextChunk, aborted, out,
+                                checkpoint);
+                    } catch (IOException | RuntimeException e) {
+                        aborted.set(true);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (CompletableFuture<Object> worker : workers) {
+                    SMBSessionPool.await(worker);
+                }
+            } finally {
+                aborted.set(true);
+            }
+        }
+    }
+
+    private static void downloadChunks(SMBSession session, String path, long start, long length, int chunkSize,
+                                       AtomicLong nextChunk, AtomicBoolean aborted, FileChannel out,
+                                       SMBTransferCheckpoint checkpoint) throws IOException {
+
+        SmbRandomAccessFile file = new SmbRandomAccessFile(session.resolve(path), READ_MODE);
+        try {
+            byte[] buffer = new byte[chunkSize];
+            long offset;
+            while (!aborted.get() && (offset = start + nextChunk.getAndIncrement() * chunkSize) < length) {
+                int count = (int) Math.min(chunkSize, length - offset);
+                readFully(file, offset, buffer, 0, count, false);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, count);
+                long position = offset;
+                while (chunk.hasRemaining()) {
+                    position += out.write(chunk, position);
+                }
+                if (checkpoint != null && checkpoint.chunkCompleted(offset, count)) {
+                    // Only record progress which is on disk
+                    out.force(false);
+                    checkpoint.save();
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Reads a chunk of a remote file into a buffer. Content for direct buffers is staged in a buffer of the
+     * reading thread.
+     *
+     * @param session the session to read with
+     * @param path    the path of the remote file
+     * @param offset  the offset of the chunk
+     * @param count   the number of bytes in the chunk
+     * @param buffer  the buffer to read into, with a capacity of at least the number of bytes in the chunk
+     * @return the buffer, flipped to be read
+     * @throws IOException if the chunk could not be read
+     */
+    static ByteBuffer readChunk(SMBSession session, String path, long offset, int count, ByteBuffer buffer)
+            throws IOException {
+
+        return readChunk(session, path, offset, count, buffer, false);
+    }
+
+    /**
+     * Reads a chunk of a remote file into a buffer, or the part of the chunk before the end of the file.
+     *
+     * @param session the session to read with
+     * @param path    the path of the remote file
+     * @param offset  the offset of the chunk
+     * @param count   the maximum number of bytes in the chunk
+     * @param buffer  the buffer to read into, with a capacity of at least the number of bytes in the chunk
+     * @return the buffer, flipped to be read. It has no remaining bytes if the file ends before the offset
+     * @throws IOException if the chunk could not be read
+     */
+    static ByteBuffer readAvailableChunk(SMBSession session, String path, long offset, int count, ByteBuffer buffer)
+            throws IOException {
+
+        return readChunk(session, path, offset, count, buffer, true);
+    }
+
+    private static ByteBuffer readChunk(SMBSession session, String path, long offset, int count, ByteBuffer buffer,
+                                        boolean toEnd) throws IOException {
+
+        SmbRandomAccessFile file = new SmbRandomAccessFile(session.resolve(path), READ_MODE);
+        try {
+            buffer.clear();
+            int read;
+            if (buffer.hasArray()) {
+                read = readFully(file, offset, buffer.array(), buffer.arrayOffset(), count, toEnd);
+            } else {
+                byte[] staging = STAGING_BUFFER.get();
+                if (staging.length < count) {
+                    staging = new byte[count];
+                    STAGING_BUFFER.set(staging);
+                }
+                read = readFully(file, offset, staging, 0, count, toEnd);
+                buffer.put(staging, 0, read);
+            }
+            buffer.position(0);
+            buffer.limit(read);
+            return buffer;
+        } finally {
+            file.close();
+        }
+    }
+
+    private static int readFully(SmbRandomAccessFile file, long offset, byte[] buffer, int bufferOffset, int count,
+                                 boolean toEnd) throws IOException {
+
+        file.seek(offset);
+        int read = 0;
+        while (read < count) {
+            int n = file.read(buffer, bufferOffset + read, count - read);
+            if (n < 0) {
+                if (toEnd) {
+                    break;
+                }
+                throw new EOFException("Remote file ended at " + (offset + read) + " while reading a chunk of "
+                        + count + " bytes at " + offset);
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    /**
+     * Gives the number of chunks that can be read at the same time. A transfer never uses more sessions than the
+     * pool can hand out, so that its workers do not time out waiting for each other.
+     *
+     * @param pool   the session pool of the endpoint
+     * @param config the transfer configuration
+     * @return the number of concurrent reads
+     */
+    static int workerLimit(SMBSessionPool pool, SMBTransferConfig config) {
+        return Math.min(config.getMaxConcurrency(), pool.getMaxActiveSessions());
+    }
+}
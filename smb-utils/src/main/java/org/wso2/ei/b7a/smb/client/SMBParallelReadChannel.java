@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Read only channel over a remote file which keeps a window of chunk reads in flight on pooled sessions and
+ * hands out the chunks in file order, so the next chunks are fetched while the caller processes the current one.
+ * Chunks are read into buffers of a {@link SMBBufferPool}, and at most the window size plus one chunks are
+ * buffered at a time. The reads sent ahead can be limited across all the channels of an endpoint by a shared
+ * semaphore, in which case a channel which gets no permit reads its next chunk on the caller's thread. Content
+ * appended to the file after it was opened is read sequentially once the length known at opening is reached.
+ */
+class SMBParallelReadChannel implements ByteChannel {
+
+    private final SMBSessionPool pool;
+    private final SMBBufferPool buffers;
+    private final String path;
+    private final long length;
+    private final int chunkSize;
+    private final int window;
+    private final Semaphore readPermits;
+    private final Deque<CompletableFuture<ByteBuffer>> pendingChunks = new ArrayDeque<>();
+    private long nextChunkOffset;
+    private ByteBuffer currentChunk;
+    private boolean endReached;
+    private boolean open = true;
+
+    /**
+     * Opens the channel and sends the first window of chunk reads.
+     *
+     * @param pool        the session pool of the endpoint
+     * @param buffers     the pool of chunk buffers, each at least the chunk size
+     * @param path        the path of the remote file
+     * @param length      the length of the remote file when it is opened
+     * @param chunkSize   the size of a chunk
+     * @param window      the number of chunk reads kept in flight
+     * @param readPermits the permits shared by the reads sent ahead by the channels of the endpoint, or null if
+     *                    the reads are only limited by the window
+     */
+    SMBParallelReadChannel(SMBSessionPool pool, SMBBufferPool buffers, String path, long length, int chunkSize,
+                           int window, Semaphore readPermits) {
+
+        this.pool = pool;
+        this.buffers = buffers;
+        this.path = path;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.window = Math.max(1, Math.min(window, pool.getMaxActiveSessions()));
+        this.readPermits = readPermits;
+        requestChunks();
+    }
+
+    private void requestChunks() {
+
+        while (pendingChunks.size() < window && nextChunkOffset < length) {
+            if (readPermits != null && !readPermits.tryAcquire()) {
+                return;
+            }
+            long offset = nextChunkOffset;
+            int count = (int) Math.min(chunkSize, length - offset);
+            ByteBuffer buffer = buffers.acquire();
+            CompletableFuture<ByteBuffer> chunk = pool.submit(session -> SMBParallelDownloader.readChunk(session,
+                    path, offset, count, buffer));
+            if (readPermits != null) {
+                chunk.whenComplete((result, error) -> readPermits.release());
+            }
+            pendingChunks.addLast(chunk);
+            nextChunkOffset += count;
+        }
+    }
+
+    /**
+     * Reads the next chunk on the caller's thread, when no read was sent ahead for it. Past the length known at
+     * opening, chunks are read up to the current end of the file.
+     */
+    private ByteBuffer readNextChunk() throws IOException {
+
+        long offset = nextChunkOffset;
+        boolean appended = offset >= length;
+        int count = appended ? chunkSize : (int) Math.min(chunkSize, length - offset);
+        ByteBuffer buffer = buffers.acquire();
+        try {
+            ByteBuffer chunk = pool.execute(session -> appended
+                    ? SMBParallelDownloader.readAvailableChunk(session, path, offset, count, buffer)
+                    : SMBParallelDownloader.readChunk(session, path, offset, count, buffer));
+            nextChunkOffset += chunk.remaining();
+            endReached = appended && chunk.remaining() < count;
+            return chunk;
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            buffers.release(buffer);
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        while (currentChunk == null || !currentChunk.hasRemaining()) {
+            CompletableFuture<ByteBuffer> next = pendingChunks.pollFirst();
+            if (next == null && endReached) {
+                return -1;
+            }
+            releaseCurrentChunk();
+            if (next == null) {
+                currentChunk = readNextChunk();
+            } else {
+                try {
+                    currentChunk = SMBSessionPool.await(next);
+                } catch (BallerinaSMBException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+            requestChunks();
+        }
+        int count = Math.min(dst.remaining(), currentChunk.remaining());
+        int limit = currentChunk.limit();
+        currentChunk.limit(currentChunk.position() + count);
+        dst.put(currentChunk);
+        currentChunk.limit(limit);
+        return count;
+    }
+
+    private void releaseCurrentChunk() {
+
+        if (currentChunk != null) {
+            buffers.release(currentChunk);
+            currentChunk = null;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+
+        if (open) {
+            open = false;
+            // Reads already sent to the server cannot be recalled. Their buffers go back to the pool once they
+            // complete.
+            pendingChunks.forEach(chunk -> chunk.thenAccept(buffers::release));
+            pendingChunks.clear();
+            releaseCurrentChunk();
+        }
+    }
+}
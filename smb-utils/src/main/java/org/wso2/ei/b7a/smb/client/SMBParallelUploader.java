@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbFileOutputStream;
+import jcifs.smb.SmbRandomAccessFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uploads content as fixed size chunks which are written concurrently at their offsets, each worker on its own
+ * pooled session. The content is written to a temporary file next to the target, which is renamed to the target
+ * once every chunk has been written.
+ */
+class SMBParallelUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBParallelUploader.class);
+
+    static final String PART_SUFFIX = ".part";
+    private static final String WRITE_MODE = "rw";
+    private static final long BUFFER_WAIT_MILLIS = 100;
+    private static final Chunk END = new Chunk(null, -1, 0);
+
+    private SMBParallelUploader() {
+        // private constructor
+    }
+
+    /**
+     * Uploads content to a remote file. The content is read into a fixed set of buffers on the calling thread,
+     * and reading waits for a free buffer, so at most one chunk more than the number of workers is held in memory.
+     *
+     * @param pool    the session pool of the endpoint
+     * @param path    the path of the remote file, replaced if it exists
+     * @param content the content to upload, closed once read
+     * @param config  the transfer configuration
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the content could not be read or the remote file could not be written
+     */
+    static void upload(SMBSessionPool pool, String path, InputStream content, SMBTransferConfig config)
+            throws BallerinaSMBException, IOException {
+
+        boolean completed = false;
+        try (InputStream in = content) {
+            transfer(pool, path, in, config, null);
+            completed = true;
+        } finally {
+            if (!completed) {
+                discard(pool, path + PART_SUFFIX);
+            }
+        }
+    }
+
+    /**
+     * Uploads a local file to a remote file, continuing an earlier attempt which failed. The progress is recorded
+     * in a state file next to the local file. An earlier attempt is only continued if the size and the
+     * modification time of the local file are unchanged and the temporary file on the server holds the recorded
+     * progress. The temporary file and the state file are kept if the upload fails, so that it can be resumed
+     * again.
+     *
+     * @param pool      the session pool of the endpoint
+     * @param localFile the local file to upload
+     * @param path      the path of the remote file, replaced if it exists
+     * @param config    the transfer configuration
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the local file could not be read or the remote file could not be written
+     */
+    static void resumeUpload(SMBSessionPool pool, Path localFile, String path, SMBTransferConfig config)
+            throws BallerinaSMBException, IOException {
+
+        SMBTransferCheckpoint checkpoint = new SMBTransferCheckpoint(localFile, path, Files.size(localFile),
+                Files.getLastModifiedTime(localFile).toMillis());
+        if (checkpoint.restore()) {
+            String partPath = path + PART_SUFFIX;
+            long partLength = pool.execute(session -> {
+                SmbFile part = session.resolve(partPath);
+                return part.exists() ? part.length() : -1L;
+            });
+            if (partLength < checkpoint.getBytesDone()) {
+                checkpoint.reset();
+            }
+        }
+        try (FileChannel source = FileChannel.open(localFile, StandardOpenOption.READ)) {
+            source.position(checkpoint.getBytesDone());
+            transfer(pool, path, Channels.newInputStream(source), config, checkpoint);
+        }
+        checkpoint.delete();
+    }
+
+    private static void transfer(SMBSessionPool pool, String path, InputStream in, SMBTransferConfig config,
+                                 SMBTransferCheckpoint checkpoint) throws BallerinaSMBException, IOException {
+
+        String partPath = path + PART_SUFFIX;
+        long start = checkpoint == null ? 0 : checkpoint.getBytesDone();
+        int workerCount = SMBParallelDownloader.workerLimit(pool, config);
+        if (start == 0) {
+            pool.execute(session -> {
+                new SmbFileOutputStream(session.resolve(partPath)).close();
+                return null;
+            });
+        }
+
+        BlockingQueue<byte[]> freeBuffers = new ArrayBlockingQueue<>(workerCount + 1);
+        for (int i = 0; i <= workerCount; i++) {
+            freeBuffers.add(new byte[config.getChunkSize()]);
+        }
+        BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<CompletableFuture<Object>> workers = new ArrayList<>(workerCount);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(pool.submit(session -> {
+                    try {
+                        writeChunks(session, partPath, chunks, freeBuffers, aborted, checkpoint);
+                    } catch (IOException | RuntimeException e) {
+                        aborted.set(true);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            try {
+                readChunks(in, start, chunks, freeBuffers, aborted);
+            } finally {
+                for (int i = 0; i < workerCount; i++) {
+                    chunks.add(END);
+                }
+            }
+            for (CompletableFuture<Object> worker : workers) {
+                SMBSessionPool.await(worker);
+            }
+        } finally {
+            aborted.set(true);
+        }
+        pool.execute(session -> commit(session, partPath, path));
+    }
+
+    private static void readChunks(InputStream in, long start, BlockingQueue<Chunk> chunks,
+                                   BlockingQueue<byte[]> freeBuffers, AtomicBoolean aborted)
+            throws IOException, BallerinaSMBException {
+
+        long offset = start;
+        while (!aborted.get()) {
+            byte[] buffer;
+            try {
+                buffer = freeBuffers.poll(BUFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BallerinaSMBException("Interrupted while uploading content", e);
+            }
+            if (buffer == null) {
+                continue;
+            }
+            int length = readFully(in, buffer);
+            if (length == 0) {
+                return;
+            }
+            chunks.add(new Chunk(buffer, offset, length));
+            offset += length;
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+
+        int read = 0;
+        int n;
+        while (read < buffer.length && (n = in.read(buffer, read, buffer.length - read)) != -1) {
+            read += n;
+        }
+        return read;
+    }
+
+    private static void writeChunks(SMBSession session, String partPath, BlockingQueue<Chunk> chunks,
+                                    BlockingQueue<byte[]> freeBuffers, AtomicBoolean aborted,
+                                    SMBTransferCheckpoint checkpoint) throws IOException, BallerinaSMBException {
+
+        SmbRandomAccessFile file = new SmbRandomAccessFile(session.resolve(partPath), WRITE_MODE);
+        try {
+            Chunk chunk;
+            while ((chunk = takeChunk(chunks)) != END && !aborted.get()) {
+                file.seek(chunk.offset);
+                file.write(chunk.buffer, 0, chunk.length);
+                freeBuffers.add(chunk.buffer);
+                if (checkpoint != null && checkpoint.chunkCompleted(chunk.offset, chunk.length)) {
+                    checkpoint.save();
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    private static Chunk takeChunk(BlockingQueue<Chunk> chunks) throws BallerinaSMBException {
+
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BallerinaSMBException("Interrupted while uploading content", e);
+        }
+    }
+
+    /**
+     * Replaces the target with the fully written temporary file. A rename cannot replace an existing file over
+     * SMB1, so an existing target is deleted first.
+     */
+    private static Object commit(SMBSession session, String partPath, String path) throws IOException {
+
+        SmbFile target = session.resolve(path);
+        if (target.exists()) {
+            target.delete();
+        }
+        session.resolve(partPath).renameTo(target);
+        return null;
+    }
+
+    private static void discard(SMBSessionPool pool, String partPath) {
+
+        try {
+            pool.execute(session -> {
+                session.resolve(partPath).delete();
+                return null;
+            });
+        } catch (IOException | BallerinaSMBException e) {
+            log.warn("Could not delete the partially uploaded file {}: {}", partPath, e.getMessage());
+        }
+    }
+
+    /**
+     * A chunk of content and its offset in the file.
+     */
+    private static class Chunk {
+
+        private final byte[] buffer;
+        private final long offset;
+        private final int length;
+
+        Chunk(byte[] buffer, long offset, int length) {
+
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
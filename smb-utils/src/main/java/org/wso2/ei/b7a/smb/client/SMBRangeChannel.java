@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbFile;
+import jcifs.smb.SmbRandomAccessFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read only {@link SeekableByteChannel} over a byte range of a remote file. Each read is sent to the server as a
+ * read request at the current position, so only the bytes within the range are transferred.
+ * Positions are relative to the start of the range.
+ */
+class SMBRangeChannel implements SeekableByteChannel {
+
+    private static final String READ_MODE = "r";
+    private static final int MAX_READ_SIZE = 64 * 1024;
+
+    private final SmbRandomAccessFile file;
+    private final long start;
+    private final long end;
+    private long position;
+    private byte[] readBuffer;
+    private boolean open = true;
+
+    /**
+     * Opens a channel over a range of a file.
+     *
+     * @param file   the remote file
+     * @param offset the offset of the first byte of the range
+     * @param length the length of the range, or a negative value to read until the end of the file
+     * @throws IOException if the file could not be opened
+     */
+    SMBRangeChannel(SmbFile file, long offset, long length) throws IOException {
+
+        this.file = new SmbRandomAccessFile(file, READ_MODE);
+        long fileLength = this.file.length();
+        this.start = Math.min(offset, fileLength);
+        this.end = length < 0 ? fileLength : Math.min(fileLength, start + length);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+
+        ensureOpen();
+        long remaining = end - (start + position);
+        if (remaining <= 0) {
+            return -1;
+        }
+        int count = (int) Math.min(Math.min(dst.remaining(), remaining), MAX_READ_SIZE);
+        if (count == 0) {
+            return 0;
+        }
+        file.seek(start + position);
+        int read;
+        if (dst.hasArray()) {
+            read = file.read(dst.array(), dst.arrayOffset() + dst.position(), count);
+            if (read > 0) {
+                dst.position(dst.position() + read);
+            }
+        } else {
+            if (readBuffer == null) {
+                readBuffer = new byte[MAX_READ_SIZE];
+            }
+            read = file.read(readBuffer, 0, count);
+            if (read > 0) {
+                dst.put(readBuffer, 0, read);
+            }
+        }
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Position must not be negative: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+
+        ensureOpen();
+        return end - start;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (open) {
+            open = false;
+            file.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
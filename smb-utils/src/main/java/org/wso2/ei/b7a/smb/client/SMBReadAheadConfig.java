@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+/**
+ * Configuration of the read-ahead of the streams returned by `get()`
+ */
+class SMBReadAheadConfig {
+
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    private static final int DEFAULT_OUTSTANDING_READS = 0;
+
+    private final int bufferSize;
+    private final int outstandingReads;
+    private final boolean directBuffers;
+
+    SMBReadAheadConfig(int bufferSize, int outstandingReads, boolean directBuffers) {
+
+        this.bufferSize = Math.max(1, bufferSize);
+        this.outstandingReads = Math.max(0, outstandingReads);
+        this.directBuffers = directBuffers;
+    }
+
+    /**
+     * Creates the read-ahead configuration from the `ReadAheadConfig` record of an endpoint configuration.
+     *
+     * @param readAheadConfig the read-ahead record, or null to use the defaults
+     * @return the read-ahead configuration
+     */
+    static SMBReadAheadConfig from(MapValue readAheadConfig) {
+
+        if (readAheadConfig == null) {
+            return new SMBReadAheadConfig(DEFAULT_BUFFER_SIZE, DEFAULT_OUTSTANDING_READS, false);
+        }
+        return new SMBReadAheadConfig(
+                Math.toIntExact(readAheadConfig.getIntValue(SmbConstants.READ_AHEAD_BUFFER_SIZE)),
+                Math.toIntExact(readAheadConfig.getIntValue(SmbConstants.READ_AHEAD_OUTSTANDING_READS)),
+                readAheadConfig.getBooleanValue(SmbConstants.READ_AHEAD_DIRECT_BUFFERS));
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Gives the number of reads sent ahead of the caller. Read-ahead is disabled when this is zero.
+     *
+     * @return the number of outstanding reads
+     */
+    int getOutstandingReads() {
+        return outstandingReads;
+    }
+
+    /**
+     * Gives the number of reads that the streams of an endpoint can send ahead altogether. Read-ahead takes at
+     * most half of the sessions of the pool, so the other operations of the endpoint are not starved by it.
+     *
+     * @param maxActiveSessions the size of the session pool of the endpoint
+     * @return the number of reads sent ahead by all streams of the endpoint
+     */
+    int getReadAheadLimit(int maxActiveSessions) {
+        return outstandingReads == 0 ? 0 : Math.max(1, maxActiveSessions / 2);
+    }
+
+    boolean isDirectBuffers() {
+        return directBuffers;
+    }
+}
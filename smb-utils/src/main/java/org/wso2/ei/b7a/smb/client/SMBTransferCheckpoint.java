@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Progress of a resumable transfer, persisted in a state file next to the local file of the transfer. Chunks may
+ * complete in any order, so only the bytes up to the first chunk that is not yet transferred are counted as done.
+ * The source of the transfer is recorded with its size and modification time, so that a transfer is only resumed
+ * if its source has not changed.
+ */
+class SMBTransferCheckpoint {
+
+    private static final String STATE_FILE_SUFFIX = ".smbstate";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String REMOTE_PATH = "remotePath";
+    private static final String SOURCE_SIZE = "sourceSize";
+    private static final String SOURCE_MODIFIED = "sourceModified";
+    private static final String BYTES_DONE = "bytesDone";
+
+    private final Path stateFile;
+    private final String remotePath;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final TreeMap<Long, Long> completedAhead = new TreeMap<>();
+    private long bytesDone;
+
+    SMBTransferCheckpoint(Path localFile, String remotePath, long sourceSize, long sourceModified) {
+
+        this.stateFile = localFile.resolveSibling(localFile.getFileName() + STATE_FILE_SUFFIX);
+        this.remotePath = remotePath;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+    }
+
+    /**
+     * Loads the progress of an earlier attempt of the same transfer.
+     *
+     * @return true if the state file belongs to the same transfer and its source has not changed since. Otherwise
+     * the transfer starts from the beginning.
+     * @throws IOException if the state file exists but could not be read
+     */
+    boolean restore() throws IOException {
+
+        Properties state = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            state.load(in);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try {
+            if (!Objects.equals(remotePath, state.getProperty(REMOTE_PATH))
+                    || sourceSize != Long.parseLong(state.getProperty(SOURCE_SIZE))
+                    || sourceModified != Long.parseLong(state.getProperty(SOURCE_MODIFIED))) {
+                return false;
+            }
+            long restored = Long.parseLong(state.getProperty(BYTES_DONE));
+            synchronized (this) {
+                bytesDone = Math.max(0, Math.min(restored, sourceSize));
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            // A state file which was not completely written
+            return false;
+        }
+    }
+
+    synchronized long getBytesDone() {
+        return bytesDone;
+    }
+
+    /**
+     * Discards the progress of the transfer, so that it starts from the beginning.
+     */
+    synchronized void reset() {
+
+        bytesDone = 0;
+        completedAhead.clear();
+    }
+
+    /**
+     * Records a transferred chunk.
+     *
+     * @param offset the offset of the chunk
+     * @param length the length of the chunk
+     * @return true if the number of bytes done advanced
+     */
+    synchronized boolean chunkCompleted(long offset, long length) {
+
+        if (offset != bytesDone) {
+            completedAhead.put(offset, offset + length);
+            return false;
+        }
+        bytesDone = offset + length;
+        Map.Entry<Long, Long> next;
+        while ((next = completedAhead.firstEntry()) != null && next.getKey() == bytesDone) {
+            bytesDone = next.getValue();
+            completedAhead.pollFirstEntry();
+        }
+        return true;
+    }
+
+    /**
+     * Writes the progress to the state file. The file is replaced atomically, so a crash leaves either the
+     * previous or the new progress.
+     *
+     * @throws IOException if the state file could not be written
+     */
+    synchronized void save() throws IOException {
+
+        Properties state = new Properties();
+        state.setProperty(REMOTE_PATH, remotePath);
+        state.setProperty(SOURCE_SIZE, Long.toString(sourceSize));
+        state.setProperty(SOURCE_MODIFIED, Long.toString(sourceModified));
+        state.setProperty(BYTES_DONE, Long.toString(bytesDone));
+        Path tempFile = stateFile.resolveSibling(stateFile.getFileName() + TEMP_FILE_SUFFIX);
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            state.store(out, null);
+        }
+        Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes the state file once the transfer is complete.
+     *
+     * @throws IOException if the state file could not be deleted
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(stateFile);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+/**
+ * Configuration of the parallel transfers of a client endpoint
+ */
+class SMBTransferConfig {
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    private final int chunkSize;
+    private final int maxConcurrency;
+
+    SMBTransferConfig(int chunkSize, int maxConcurrency) {
+
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Creates the transfer configuration from the `ParallelTransferConfig` record of an endpoint configuration.
+     *
+     * @param transferConfig the parallel transfer record, or null to use the defaults
+     * @return the transfer configuration
+     */
+    static SMBTransferConfig from(MapValue transferConfig) {
+
+        if (transferConfig == null) {
+            return new SMBTransferConfig(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CONCURRENCY);
+        }
+        return new SMBTransferConfig(
+                Math.toIntExact(transferConfig.getIntValue(SmbConstants.TRANSFER_CHUNK_SIZE)),
+                Math.toIntExact(transferConfig.getIntValue(SmbConstants.TRANSFER_MAX_CONCURRENCY)));
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
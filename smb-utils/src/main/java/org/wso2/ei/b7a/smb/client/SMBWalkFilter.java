@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.client;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+import org.wso2.ei.b7a.smb.util.SMBFileNameMatcher;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+/**
+ * Conditions on the entries returned by a directory walk. The conditions are checked on the metadata returned
+ * with the directory listing, so filtering does not cost extra requests to the server.
+ */
+class SMBWalkFilter {
+
+    /**
+     * The filter which returns every file and folder.
+     */
+    static final SMBWalkFilter ALL = new SMBWalkFilter(null, -1, -1, -1, -1, true);
+
+    private final SMBFileNameMatcher fileNameMatcher;
+    private final long minSize;
+    private final long maxSize;
+    private final long modifiedAfter;
+    private final long modifiedBefore;
+    private final boolean includeFolders;
+
+    private SMBWalkFilter(SMBFileNameMatcher fileNameMatcher, long minSize, long maxSize, long modifiedAfter,
+                          long modifiedBefore, boolean includeFolders) {
+
+        this.fileNameMatcher = fileNameMatcher;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.modifiedAfter = modifiedAfter;
+        this.modifiedBefore = modifiedBefore;
+        this.includeFolders = includeFolders;
+    }
+
+    /**
+     * Creates the filter from a `WalkFilter` record.
+     *
+     * @param filter the filter record
+     * @return the filter
+     * @throws BallerinaSMBException if the file name pattern is not a valid regular expression
+     */
+    static SMBWalkFilter from(MapValue filter) throws BallerinaSMBException {
+
+        String pattern = filter.getStringValue(SmbConstants.ENDPOINT_CONFIG_FILE_PATTERN);
+        return new SMBWalkFilter(pattern == null || pattern.isEmpty() ? null : SMBFileNameMatcher.compile(pattern),
+                filter.getIntValue(SmbConstants.WALK_MIN_SIZE),
+                filter.getIntValue(SmbConstants.WALK_MAX_SIZE),
+                filter.getIntValue(SmbConstants.WALK_MODIFIED_AFTER),
+                filter.getIntValue(SmbConstants.WALK_MODIFIED_BEFORE),
+                filter.getBooleanValue(SmbConstants.WALK_INCLUDE_FOLDERS));
+    }
+
+    /**
+     * Checks an entry of a directory listing.
+     *
+     * @param file     the entry
+     * @param name     the name of the entry, without the trailing '/' of folders
+     * @param isFolder whether the entry is a folder
+     * @return true if the entry is to be returned
+     * @throws SmbException if the metadata of the entry could not be read
+     */
+    boolean matches(SmbFile file, String name, boolean isFolder) throws SmbException {
+
+        if (isFolder && !includeFolders) {
+            return false;
+        }
+        if (fileNameMatcher != null && !fileNameMatcher.matches(name)) {
+            return false;
+        }
+        if (!isFolder) {
+            long size = file.length();
+            if ((minSize >= 0 && size < minSize) || (maxSize >= 0 && size > maxSize)) {
+                return false;
+            }
+        }
+        long lastModified = file.lastModified();
+        return (modifiedAfter < 0 || lastModified > modifiedAfter)
+                && (modifiedBefore < 0 || lastModified < modifiedBefore);
+    }
+}
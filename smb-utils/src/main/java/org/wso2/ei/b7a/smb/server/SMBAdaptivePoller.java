@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the watchers of a {@link SMBWatchGroup} at an interval which follows the rate of changes in all their
+ * directories, so that the watchers of a listener share one scan schedule. The interval drops to the minimum after
+ * a poll which found changes, and grows by the backoff factor after each poll which found none, up to the maximum.
+ * The next poll is only scheduled once the current one completes, and never sooner than the duration of the
+ * current one, so polls do not overlap and a slow server is polled at most half of the time.
+ */
+class SMBAdaptivePoller {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBAdaptivePoller.class);
+
+    private static final AtomicInteger POLLER_COUNT = new AtomicInteger();
+
+    private final SMBWatchGroup group;
+    private final long minInterval;
+    private final long maxInterval;
+    private final double backoffFactor;
+    private long interval;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pollTask;
+
+    SMBAdaptivePoller(SMBWatchGroup group, long initialInterval, long minInterval, long maxInterval,
+                      double backoffFactor) {
+
+        this.group = group;
+        this.minInterval = Math.max(1, minInterval);
+        this.maxInterval = Math.max(this.minInterval, maxInterval);
+        this.backoffFactor = Math.max(1, backoffFactor);
+        this.interval = Math.max(this.minInterval, Math.min(initialInterval, this.maxInterval));
+    }
+
+    synchronized void start() {
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "smb-adaptive-poller-" + POLLER_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            schedule(0);
+        }
+    }
+
+    private synchronized void schedule(long delay) {
+
+        if (scheduler != null) {
+            pollTask = scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll() {
+
+        long start = System.currentTimeMillis();
+        boolean changed = false;
+        try {
+            changed = group.poll();
+        } catch (BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while polling the watched directories: {}", e.getMessage());
+        }
+        long duration = System.currentTimeMillis() - start;
+        interval = changed ? minInterval : Math.min(maxInterval, (long) Math.ceil(interval * backoffFactor));
+        schedule(Math.max(interval - duration, duration));
+    }
+
+    synchronized void stop() {
+
+        if (scheduler != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Notifies a {@link SMBDirectoryWatcher} of changes to its directories shortly after they happen. The SMB1
+ * protocol spoken by jcifs has no change notifications, so the notifier probes the modification times of the
+ * watched directories at a short interval, which takes a single request per directory, and polls the watcher as
+ * soon as one of them changes.
+ */
+class SMBChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBChangeNotifier.class);
+
+    private static final AtomicInteger PROBE_COUNT = new AtomicInteger();
+
+    private final SMBDirectoryWatcher watcher;
+    private final long intervalInMillis;
+    private ScheduledExecutorService scheduler;
+
+    SMBChangeNotifier(SMBDirectoryWatcher watcher, long intervalInMillis) {
+
+        this.watcher = watcher;
+        this.intervalInMillis = Math.max(1, intervalInMillis);
+    }
+
+    synchronized void start() {
+
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "smb-change-notifier-" + PROBE_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::probe, 0, intervalInMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void probe() {
+
+        try {
+            if (watcher.hasChanged()) {
+                watcher.poll();
+            }
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while probing the watched directory for changes: {}", e.getMessage());
+        }
+    }
+
+    synchronized void stop() {
+
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
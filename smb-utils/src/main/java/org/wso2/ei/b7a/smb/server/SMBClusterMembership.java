@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Membership of a node in a cluster of listeners which share the watched files of a server. Each node renews a
+ * lease file named after it in the membership directory on the share at the heartbeat interval. The nodes whose
+ * lease was renewed within the lease duration are the members, and each file is owned by one member, chosen by
+ * rendezvous hashing of the node identifiers with the path of the file. When a node joins or leaves, only the
+ * files it owns or takes over move to another member.
+ * <p>
+ * The ages of the leases are measured against the modification time the server gives the lease of this node, so
+ * the clocks of the nodes need not agree. A node which could not renew its lease within the lease duration owns
+ * no files until it renews it, since the other members have taken over its files by then.
+ */
+class SMBClusterMembership {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBClusterMembership.class);
+
+    private static final String LEASE_SUFFIX = ".lease";
+    private static final String PATH_SEPARATOR = "/";
+
+    private static final AtomicInteger HEARTBEAT_COUNT = new AtomicInteger();
+
+    private final SMBSessionPool pool;
+    private final String nodeId;
+    private final String directory;
+    private final long leaseDuration;
+    private final long heartbeatInterval;
+    private volatile List<String> members = Collections.emptyList();
+    private volatile long renewedAt;
+    private ScheduledExecutorService heartbeats;
+
+    /**
+     * Creates the membership of a node.
+     *
+     * @param pool              the session pool of the listener
+     * @param nodeId            the identifier of the node, unique in the cluster
+     * @param directory         the directory of the lease files, starting with the share name
+     * @param leaseDuration     the time in milliseconds after which a lease which is not renewed expires
+     * @param heartbeatInterval the interval in milliseconds at which the lease of the node is renewed
+     */
+    SMBClusterMembership(SMBSessionPool pool, String nodeId, String directory, long leaseDuration,
+                         long heartbeatInterval) {
+
+        this.pool = pool;
+        this.nodeId = nodeId;
+        this.directory = directory.endsWith(PATH_SEPARATOR) ? directory : directory + PATH_SEPARATOR;
+        this.leaseDuration = Math.max(1, leaseDuration);
+        this.heartbeatInterval = Math.max(1, Math.min(heartbeatInterval, this.leaseDuration));
+    }
+
+    synchronized void start() {
+
+        if (heartbeats == null) {
+            heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "smb-cluster-heartbeat-" + HEARTBEAT_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeats.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void heartbeat() {
+
+        try {
+            long start = System.currentTimeMillis();
+            List<String> liveMembers = pool.execute(this::renewLease);
+            renewedAt = start;
+            setMembers(liveMembers);
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while renewing the cluster lease of node {}: {}", nodeId, e.getMessage());
+            if (!isEstablished()) {
+                setMembers(Collections.emptyList());
+            }
+        }
+    }
+
+    private List<String> renewLease(SMBSession session) throws IOException {
+
+        SmbFile leaseDirectory = session.resolveDirectory(directory);
+        if (!leaseDirectory.exists()) {
+            try {
+                leaseDirectory.mkdirs();
+            } catch (SmbException e) {
+                // Another node may have created the directory in the meantime
+                if (!session.resolveDirectory(directory).exists()) {
+                    throw e;
+                }
+            }
+        }
+        try (OutputStream outputStream = session.resolve(directory + nodeId + LEASE_SUFFIX).getOutputStream()) {
+            outputStream.write(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        }
+        // A fresh handle, since a handle caches the attributes of the file
+        long renewed = session.resolve(directory + nodeId + LEASE_SUFFIX).lastModified();
+
+        List<String> liveMembers = new ArrayList<>();
+        liveMembers.add(nodeId);
+        for (SmbFile lease : session.resolveDirectory(directory).listFiles("*" + LEASE_SUFFIX)) {
+            String name = lease.getName();
+            String member = name.substring(0, name.length() - LEASE_SUFFIX.length());
+            if (!member.equals(nodeId) && renewed - lease.lastModified() < leaseDuration) {
+                liveMembers.add(member);
+            }
+        }
+        Collections.sort(liveMembers);
+        return liveMembers;
+    }
+
+    private void setMembers(List<String> liveMembers) {
+
+        if (!liveMembers.equals(members)) {
+            members = Collections.unmodifiableList(liveMembers);
+            log.info("Cluster members seen by node {}: {}", nodeId, liveMembers);
+        }
+    }
+
+    /**
+     * Checks whether the lease of this node is current, so that it may own files.
+     *
+     * @return true if the lease was renewed within the lease duration
+     */
+    boolean isEstablished() {
+        return !members.isEmpty() && System.currentTimeMillis() - renewedAt < leaseDuration;
+    }
+
+    /**
+     * Checks whether a file is owned by this node.
+     *
+     * @param path the path of the file
+     * @return true if this node has the highest rendezvous weight for the file among the members
+     */
+    boolean owns(String path) {
+
+        if (!isEstablished()) {
+            return false;
+        }
+        String owner = null;
+        long highestWeight = Long.MIN_VALUE;
+        for (String member : members) {
+            long weight = weight(member, path);
+            if (owner == null || weight > highestWeight) {
+                owner = member;
+                highestWeight = weight;
+            }
+        }
+        return nodeId.equals(owner);
+    }
+
+    private static long weight(String member, String path) {
+
+        // The finalizer of SplitMix64, which spreads the combined hash codes over the whole range
+        long weight = ((long) member.hashCode() << 32) ^ (path.hashCode() & 0xffffffffL);
+        weight = (weight ^ (weight >>> 30)) * 0xbf58476d1ce4e5b9L;
+        weight = (weight ^ (weight >>> 27)) * 0x94d049bb133111ebL;
+        return weight ^ (weight >>> 31);
+    }
+
+    /**
+     * Stops renewing the lease and deletes it, so that the other members take over the files of this node
+     * without waiting for the lease to expire.
+     */
+    void stop() {
+
+        ScheduledExecutorService stoppedHeartbeats;
+        synchronized (this) {
+            if (heartbeats == null) {
+                return;
+            }
+            stoppedHeartbeats = heartbeats;
+            heartbeats = null;
+        }
+        stoppedHeartbeats.shutdown();
+        try {
+            // A heartbeat still running would write the lease again after it is deleted
+            stoppedHeartbeats.awaitTermination(leaseDuration, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        setMembers(Collections.emptyList());
+        try {
+            pool.execute(session -> {
+                SmbFile lease = session.resolve(directory + nodeId + LEASE_SUFFIX);
+                if (lease.exists()) {
+                    lease.delete();
+                }
+                return null;
+            });
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while releasing the cluster lease of node {}: {}", nodeId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,614 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+import org.wso2.ei.b7a.smb.util.SMBFileNameMatcher;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches a remote directory for files which are added or deleted. Each poll lists the directory and compares it
+ * with a {@link SMBSnapshotIndex} of the files seen so far, which is loaded on the first poll. The index is only
+ * updated once the service has been notified, so changes which were not delivered are reported again.
+ * <p>
+ * In the incremental scan mode, the modification time of each directory at its last listing is kept as its
+ * watermark. A directory is only listed again once its modification time moves past the watermark, which happens
+ * when an entry is created, deleted or renamed in it. The files of the other directories are taken from the index,
+ * so a poll of a quiet directory costs a single query. Every directory is listed again once the full scan interval
+ * has passed, for file systems which do not keep the modification times of directories.
+ * <p>
+ * In the notify mode, a {@link SMBChangeNotifier} polls the watcher as soon as a watched directory changes, and
+ * the scheduled polls only reconcile what the notifier missed.
+ * <p>
+ * By default, the changes found by a poll are delivered to the service in a single event before the poll
+ * completes. With concurrent dispatch, each change is delivered in its own event by a
+ * {@link SMBEventDispatcher}, and is recorded in the index once its event is delivered. Files with an event in
+ * flight are left out of the following polls. With batching, the changes are split into events of a bounded
+ * number of files, and a poll which finds fewer changes than fill an event holds them back until the maximum
+ * batch latency has passed.
+ * <p>
+ * In a cluster, each node only reports and indexes the files its {@link SMBClusterMembership} owns. The files
+ * owned by other nodes are remembered as seen, and are reported as added by the node a file is handed over to, so
+ * a file whose owner leaves before delivering it is still delivered, at least once.
+ * <p>
+ * When files are claimed, each added file is claimed by a {@link SMBFileClaimer} before the service is notified of
+ * it, the claim is completed once the service returns, and the expired claims in the watched directories are
+ * recovered every half claim timeout. A {@link SMBPostProcessor} deletes or moves the added files once the service
+ * is notified of them.
+ */
+class SMBDirectoryWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBDirectoryWatcher.class);
+    private static final String PATH_SEPARATOR = "/";
+
+    private final SMBSessionPool pool;
+    private final SMBWatchConfig config;
+    private final SMBListener listener;
+    private final SMBChangeNotifier notifier;
+    private final SMBEventDispatcher dispatcher;
+    private final SMBClusterMembership membership;
+    private final SMBFileClaimer claimer;
+    private final SMBPostProcessor postProcessor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<String> postProcessing = ConcurrentHashMap.newKeySet();
+    private final Set<CompletableFuture<Void>> postProcessingTasks = ConcurrentHashMap.newKeySet();
+    private final Map<String, SMBSnapshotIndex.Entry> foreignFiles = new HashMap<>();
+    private final AtomicBoolean rescanRequested = new AtomicBoolean();
+    private SMBSnapshotIndex index;
+    private volatile Map<String, Long> watermarks = new HashMap<>();
+    private long lastFullScan;
+    private long pendingSince;
+    private long lastRecovery;
+
+    /**
+     * Creates a watcher.
+     *
+     * @param pool          the session pool of the listener
+     * @param config        the watch configuration
+     * @param listener      the listener which notifies the service
+     * @param membership    the cluster membership of the node, or null if the node watches every file
+     * @param claimer       the claimer of the added files, or null if the files are not claimed
+     * @param postProcessor the post processor of the added files, or null if the files are left as they are
+     */
+    SMBDirectoryWatcher(SMBSessionPool pool, SMBWatchConfig config, SMBListener listener,
+                        SMBClusterMembership membership, SMBFileClaimer claimer, SMBPostProcessor postProcessor) {
+
+        this.pool = pool;
+        this.config = config;
+        this.listener = listener;
+        this.membership = membership;
+        this.claimer = claimer;
+        this.postProcessor = postProcessor;
+        this.notifier = config.isNotifyChanges() ? new SMBChangeNotifier(this, config.getNotifyInterval()) : null;
+        this.dispatcher = config.isConcurrentDispatch() ? new SMBEventDispatcher(config.getMaxInFlightEvents(),
+                config.isOrderedByPath()) : null;
+    }
+
+    /**
+     * Starts notifying changes, if the watcher is in the notify mode.
+     */
+    void start() {
+
+        if (notifier != null) {
+            notifier.start();
+        }
+    }
+
+    /**
+     * Checks whether a watched directory changed since the last poll, from the modification times of the
+     * directories, which takes a single request per directory.
+     *
+     * @return true if a directory changed or the watcher has not polled yet
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the modification time of a directory could not be read
+     */
+    boolean hasChanged() throws BallerinaSMBException, IOException {
+
+        Map<String, Long> knownWatermarks = watermarks;
+        if (knownWatermarks.isEmpty()) {
+            return true;
+        }
+        return pool.execute(session -> {
+            for (Map.Entry<String, Long> watermark : knownWatermarks.entrySet()) {
+                if (session.resolveDirectory(watermark.getKey()).lastModified() != watermark.getValue()) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Lists the watched directory and notifies the service of the files added and deleted since the last poll.
+     *
+     * @return true if files were added or deleted
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if the directory could not be listed or the index could not be written
+     */
+    boolean poll() throws BallerinaSMBException, IOException {
+
+        // Events are dispatched outside the monitor, so that a poll waiting for the events in flight does not keep
+        // other polls of the watcher waiting as well
+        List<Event> events = new ArrayList<>();
+        boolean changes = collect(events);
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            try {
+                dispatcher.dispatch(event.key, event::deliver);
+            } catch (BallerinaSMBException e) {
+                // The watermarks have moved past the changes which are not dispatched
+                for (Event notDispatched : events.subList(i, events.size())) {
+                    notDispatched.release();
+                }
+                rescanRequested.set(true);
+                throw e;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Finds the changes since the last poll. In the serial mode, the service is notified of them before this
+     * returns. Otherwise, the events of the changes are marked in flight and given back to be dispatched.
+     */
+    private synchronized boolean collect(List<Event> events) throws BallerinaSMBException, IOException {
+
+        if (index == null) {
+            Path snapshotFile = config.getSnapshotFile();
+            index = snapshotFile == null ? SMBSnapshotIndex.inMemory() : SMBSnapshotIndex.open(snapshotFile);
+        }
+        if (membership != null && !membership.isEstablished()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        boolean fullScan = rescanRequested.getAndSet(false) || !config.isIncrementalScan()
+                || now - lastFullScan >= config.getFullScanInterval();
+        Scan scan;
+        try {
+            scan = pool.execute(session -> scan(session, fullScan));
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            rescanRequested.compareAndSet(false, fullScan);
+            throw e;
+        }
+        if (claimer != null && now - lastRecovery >= claimer.getClaimTimeout() / 2) {
+            recoverClaims(scan.watermarks.keySet());
+            lastRecovery = now;
+        }
+
+        // A pending file is checked before the index, since a delivery records the file in the index before it
+        // leaves the files in flight. A new file owned by another node is only remembered as seen, and is reported
+        // by the first poll after it is handed over to this node
+        Map<String, SMBSnapshotIndex.Entry> addedFiles = new LinkedHashMap<>();
+        Map<String, SMBSnapshotIndex.Entry> changedFiles = new HashMap<>();
+        for (Map.Entry<String, SMBSnapshotIndex.Entry> file : scan.files.entrySet()) {
+            if (isPending(file.getKey())) {
+                continue;
+            }
+            SMBSnapshotIndex.Entry seen = index.get(file.getKey());
+            if (seen == null) {
+                if (owns(file.getKey())) {
+                    addedFiles.put(file.getKey(), file.getValue());
+                    foreignFiles.remove(file.getKey());
+                } else {
+                    foreignFiles.put(file.getKey(), file.getValue());
+                }
+            } else if (!file.getValue().equals(seen)) {
+                changedFiles.put(file.getKey(), file.getValue());
+            }
+        }
+        foreignFiles.keySet().retainAll(scan.files.keySet());
+        List<String> deletedFiles = new ArrayList<>();
+        List<String> forgottenFiles = new ArrayList<>();
+        for (String seenPath : index.paths()) {
+            if (scan.files.containsKey(seenPath) || isPending(seenPath) || index.get(seenPath) == null) {
+                continue;
+            }
+            if (owns(seenPath)) {
+                deletedFiles.add(seenPath);
+            } else {
+                forgottenFiles.add(seenPath);
+            }
+        }
+
+        boolean changes = !addedFiles.isEmpty() || !deletedFiles.isEmpty();
+        int pendingFiles = addedFiles.size() + deletedFiles.size();
+        int maxFilesPerEvent = dispatcher == null ? Math.max(1, pendingFiles) : 1;
+        if (config.isBatching()) {
+            maxFilesPerEvent = config.getMaxFilesPerEvent();
+            if (changes && pendingFiles < maxFilesPerEvent) {
+                pendingSince = pendingSince == 0 ? now : pendingSince;
+                if (now - pendingSince < config.getMaxBatchLatency()) {
+                    // The watermarks do not move, so the next poll finds the held changes again, and a file which
+                    // is added and deleted again in the meantime is never reported
+                    index.update(changedFiles, forgottenFiles);
+                    return true;
+                }
+            }
+            pendingSince = 0;
+        }
+
+        index.update(changedFiles, forgottenFiles);
+        List<String> changedPaths = new ArrayList<>(addedFiles.keySet());
+        changedPaths.addAll(deletedFiles);
+        if (dispatcher == null) {
+            for (int from = 0; from < changedPaths.size(); from += maxFilesPerEvent) {
+                Map<String, SMBSnapshotIndex.Entry> batchAdded = new LinkedHashMap<>();
+                List<String> batchDeleted = new ArrayList<>();
+                batch(changedPaths, from, maxFilesPerEvent, addedFiles, batchAdded, batchDeleted);
+                deliver(index, batchAdded, batchDeleted);
+            }
+            // The watermarks only move once the changes below them are delivered and recorded
+            watermarks = scan.watermarks;
+        } else {
+            // A failed delivery requests a full scan, so the watermarks can move ahead of the deliveries
+            watermarks = scan.watermarks;
+            for (int from = 0; from < changedPaths.size(); from += maxFilesPerEvent) {
+                Map<String, SMBSnapshotIndex.Entry> batchAdded = new LinkedHashMap<>();
+                List<String> batchDeleted = new ArrayList<>();
+                batch(changedPaths, from, maxFilesPerEvent, addedFiles, batchAdded, batchDeleted);
+                events.add(new Event(changedPaths.get(from), index, batchAdded, batchDeleted));
+            }
+        }
+        if (fullScan) {
+            lastFullScan = now;
+        }
+        return changes;
+    }
+
+    /**
+     * Checks whether the changes of a file are reported by this node. The files owned by other nodes are not
+     * recorded in the index, so that a node which takes a file over reports it as added, whether its previous owner
+     * delivered it or not, and a file which moves to another node is dropped from the index without being reported
+     * as deleted.
+     */
+    private boolean owns(String path) {
+        return membership == null || membership.owns(path);
+    }
+
+    /**
+     * Splits the files of the event which starts at the given position out of the changes found by a poll.
+     */
+    private static void batch(List<String> changedPaths, int from, int maxFilesPerEvent,
+                              Map<String, SMBSnapshotIndex.Entry> addedFiles,
+                              Map<String, SMBSnapshotIndex.Entry> batchAdded, List<String> batchDeleted) {
+
+        int to = Math.min(changedPaths.size(), from + maxFilesPerEvent);
+        for (String changedPath : changedPaths.subList(from, to)) {
+            SMBSnapshotIndex.Entry added = addedFiles.get(changedPath);
+            if (added != null) {
+                batchAdded.put(changedPath, added);
+            } else {
+                batchDeleted.add(changedPath);
+            }
+        }
+    }
+
+    /**
+     * An event to be delivered by the dispatcher. Its files are in flight from the poll which found them until
+     * the event is delivered, or given up.
+     */
+    private class Event {
+
+        private final String key;
+        private final SMBSnapshotIndex deliveryIndex;
+        private final Map<String, SMBSnapshotIndex.Entry> addedFiles;
+        private final List<String> deletedFiles;
+
+        Event(String key, SMBSnapshotIndex deliveryIndex, Map<String, SMBSnapshotIndex.Entry> addedFiles,
+              List<String> deletedFiles) {
+
+            this.key = key;
+            this.deliveryIndex = deliveryIndex;
+            this.addedFiles = addedFiles;
+            this.deletedFiles = deletedFiles;
+            inFlight.addAll(addedFiles.keySet());
+            inFlight.addAll(deletedFiles);
+        }
+
+        /**
+         * Delivers the event, and records its files in the index once it is delivered. If the delivery fails,
+         * the files are left as they were in the index and a full scan is requested, so that the next poll
+         * reports them again.
+         */
+        private void deliver() {
+
+            try {
+                SMBDirectoryWatcher.this.deliver(deliveryIndex, addedFiles, deletedFiles);
+            } catch (IOException | BallerinaSMBException | RuntimeException e) {
+                log.warn("Error while delivering an event of the watched directory: {}", e.getMessage());
+                rescanRequested.set(true);
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+
+            inFlight.removeAll(addedFiles.keySet());
+            inFlight.removeAll(deletedFiles);
+        }
+    }
+
+    /**
+     * Notifies the service of the files of an event, and records them in the index. When the files are claimed,
+     * the service is notified of the added files which could be claimed, at their paths in the processing area,
+     * and the claims are released if the service fails. The files are then post processed, or their claims are
+     * completed, and the files which leave the watched directory, by being claimed, deleted or moved, are not
+     * recorded in the index.
+     */
+    private void deliver(SMBSnapshotIndex deliveryIndex, Map<String, SMBSnapshotIndex.Entry> addedFiles,
+                         List<String> deletedFiles) throws BallerinaSMBException, IOException {
+
+        Map<String, String> reportedPaths;
+        if (claimer == null) {
+            reportedPaths = new LinkedHashMap<>();
+            for (String addedFile : addedFiles.keySet()) {
+                reportedPaths.put(addedFile, addedFile);
+            }
+        } else {
+            reportedPaths = addedFiles.isEmpty() ? Collections.emptyMap() : claimer.claim(addedFiles.keySet());
+        }
+        Map<String, SMBSnapshotIndex.Entry> reportedFiles = new LinkedHashMap<>();
+        for (Map.Entry<String, String> reportedPath : reportedPaths.entrySet()) {
+            reportedFiles.put(reportedPath.getValue(), addedFiles.get(reportedPath.getKey()));
+        }
+        if (!reportedFiles.isEmpty() || !deletedFiles.isEmpty()) {
+            try {
+                listener.onEvent(toFileInfoParams(reportedFiles), deletedFiles);
+            } catch (RuntimeException e) {
+                // The service panicked or returned an error
+                if (postProcessor != null && postProcessor.removesFailedFiles()) {
+                    postProcess(deliveryIndex, addedFiles, reportedPaths, false);
+                } else if (claimer != null) {
+                    claimer.release(reportedPaths);
+                }
+                throw e;
+            }
+        }
+        boolean filesLeave = claimer != null;
+        if (postProcessor != null) {
+            postProcess(deliveryIndex, addedFiles, reportedPaths, true);
+            filesLeave = filesLeave || postProcessor.removesProcessedFiles();
+        }
+        if (claimer != null && (postProcessor == null || !postProcessor.removesProcessedFiles())) {
+            claimer.complete(reportedPaths.values());
+        }
+        deliveryIndex.update(filesLeave ? Collections.emptyMap() : addedFiles, deletedFiles);
+    }
+
+    /**
+     * Submits the post processing of the files of an event. The files are left out of the polls until they are
+     * deleted or moved, since they are not recorded in the index. The files which could not be deleted or moved
+     * are recorded in the index then, so that they are not reported again, after their claims are released.
+     */
+    private void postProcess(SMBSnapshotIndex deliveryIndex, Map<String, SMBSnapshotIndex.Entry> addedFiles,
+                             Map<String, String> reportedPaths, boolean processed) {
+
+        postProcessing.addAll(reportedPaths.keySet());
+        CompletableFuture<Void> task = postProcessor.submit(reportedPaths.values(), processed)
+                .thenAccept(failedPaths -> recordFailures(deliveryIndex, addedFiles, reportedPaths, failedPaths))
+                .whenComplete((result, error) -> postProcessing.removeAll(reportedPaths.keySet()));
+        postProcessingTasks.add(task);
+        task.whenComplete((result, error) -> postProcessingTasks.remove(task));
+    }
+
+    private void recordFailures(SMBSnapshotIndex deliveryIndex, Map<String, SMBSnapshotIndex.Entry> addedFiles,
+                                Map<String, String> reportedPaths, Set<String> failedPaths) {
+
+        if (failedPaths.isEmpty()) {
+            return;
+        }
+        Map<String, String> failedClaims = new LinkedHashMap<>();
+        for (Map.Entry<String, String> reportedPath : reportedPaths.entrySet()) {
+            if (failedPaths.contains(reportedPath.getValue())) {
+                failedClaims.put(reportedPath.getKey(), reportedPath.getValue());
+            }
+        }
+        // A claimed file is moved back to its original path, where it is recorded. A claim which could not be
+        // released is left to be recovered after the claim timeout.
+        Collection<String> failedFilePaths = claimer == null ? failedClaims.keySet() : claimer.release(failedClaims);
+        Map<String, SMBSnapshotIndex.Entry> failedFiles = new HashMap<>();
+        for (String failedFilePath : failedFilePaths) {
+            failedFiles.put(failedFilePath, addedFiles.get(failedFilePath));
+        }
+        try {
+            deliveryIndex.update(failedFiles, Collections.emptyList());
+        } catch (IOException e) {
+            log.warn("Error while recording the files which could not be post processed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a file has an event in flight or is being post processed, so that it is left out of a poll.
+     */
+    private boolean isPending(String path) {
+        return inFlight.contains(path) || postProcessing.contains(path);
+    }
+
+    private void recoverClaims(Collection<String> directories) {
+
+        try {
+            pool.execute(session -> {
+                claimer.recover(session, directories);
+                return null;
+            });
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while recovering expired claims: {}", e.getMessage());
+        }
+    }
+
+    private static List<Map<String, Object>> toFileInfoParams(Map<String, SMBSnapshotIndex.Entry> files) {
+
+        List<Map<String, Object>> fileInfoParams = new ArrayList<>(files.size());
+        for (Map.Entry<String, SMBSnapshotIndex.Entry> file : files.entrySet()) {
+            fileInfoParams.add(getFileInfoParams(file.getKey(), file.getValue()));
+        }
+        return fileInfoParams;
+    }
+
+    private Scan scan(SMBSession session, boolean fullScan) throws IOException {
+
+        Scan scan = new Scan();
+        if (config.isRecursive()) {
+            for (String knownPath : watermarks.keySet()) {
+                scan.knownSubdirectories.computeIfAbsent(parentOf(knownPath), parent -> new ArrayList<>())
+                        .add(knownPath);
+            }
+        }
+        SmbFile root = session.resolveDirectory(config.getPath());
+        scanDirectory(session, root, root.lastModified(), fullScan, scan);
+        if (!scan.unchangedDirectories.isEmpty()) {
+            for (String seenPath : index.paths()) {
+                if (scan.unchangedDirectories.contains(parentOf(seenPath))) {
+                    scan.files.put(seenPath, index.get(seenPath));
+                }
+            }
+            // So are the files owned by other nodes, which may be handed over to this node
+            for (Map.Entry<String, SMBSnapshotIndex.Entry> foreignFile : foreignFiles.entrySet()) {
+                if (scan.unchangedDirectories.contains(parentOf(foreignFile.getKey()))) {
+                    scan.files.put(foreignFile.getKey(), foreignFile.getValue());
+                }
+            }
+        }
+        return scan;
+    }
+
+    private void scanDirectory(SMBSession session, SmbFile directory, long lastModified, boolean fullScan,
+                               Scan scan) throws IOException {
+
+        String directoryPath = directory.getURL().getPath();
+        scan.watermarks.put(directoryPath, lastModified);
+        Long watermark = watermarks.get(directoryPath);
+        if (!fullScan && watermark != null && lastModified == watermark) {
+            scan.unchangedDirectories.add(directoryPath);
+            for (String knownPath : scan.knownSubdirectories.getOrDefault(directoryPath, Collections.emptyList())) {
+                SmbFile subdirectory = session.resolveDirectory(knownPath);
+                scanDirectory(session, subdirectory, subdirectory.lastModified(), false, scan);
+            }
+            return;
+        }
+
+        SMBFileNameMatcher fileNameMatcher = config.getFileNameMatcher();
+        SmbFile[] children;
+        if (fileNameMatcher != null && !config.isRecursive()) {
+            // Without subdirectories to visit, the server leaves out most of the names which do not match
+            children = listFiles(directory, fileNameMatcher.getWildcard());
+        } else {
+            children = directory.listFiles();
+        }
+        for (SmbFile child : children) {
+            if (child.isDirectory()) {
+                if (config.isRecursive() && (claimer == null || !claimer.isProcessingDirectory(child))) {
+                    scanDirectory(session, child, child.lastModified(), fullScan, scan);
+                }
+            } else if (fileNameMatcher == null || fileNameMatcher.matches(child.getName())) {
+                scan.files.put(child.getURL().getPath(),
+                        new SMBSnapshotIndex.Entry(child.length(), child.lastModified()));
+            }
+        }
+    }
+
+    private static SmbFile[] listFiles(SmbFile directory, String wildcard) throws SmbException {
+
+        try {
+            return directory.listFiles(wildcard);
+        } catch (SmbException e) {
+            // A wildcard which matches no name is reported as an error
+            if (e.getNtStatus() == SmbException.NT_STATUS_NO_SUCH_FILE) {
+                return new SmbFile[0];
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gives the path of the directory of a file or a directory, ending with a separator.
+     */
+    private static String parentOf(String path) {
+
+        int end = path.endsWith(PATH_SEPARATOR) ? path.length() - 1 : path.length();
+        return path.substring(0, path.lastIndexOf(PATH_SEPARATOR, end - 1) + 1);
+    }
+
+    private static Map<String, Object> getFileInfoParams(String filePath, SMBSnapshotIndex.Entry file) {
+
+        Map<String, Object> fileInfoParams = new HashMap<>();
+        fileInfoParams.put("path", filePath);
+        fileInfoParams.put("size", file.getSize());
+        fileInfoParams.put(SmbConstants.LAST_MODIFIED_TIMESTAMP, file.getLastModified());
+        return fileInfoParams;
+    }
+
+    /**
+     * Stops notifying changes, waits for the events in flight to be delivered and closes the index of
+     * the watcher.
+     *
+     * @throws IOException if the index could not be closed
+     */
+    void stop() throws IOException {
+
+        if (notifier != null) {
+            notifier.stop();
+        }
+        if (dispatcher != null) {
+            // The events in flight record their files in the index once they are delivered
+            dispatcher.close();
+        }
+        // So are the files which could not be post processed
+        CompletableFuture.allOf(postProcessingTasks.toArray(new CompletableFuture[0])).join();
+        synchronized (this) {
+            if (index != null) {
+                index.close();
+                index = null;
+            }
+        }
+    }
+
+    /**
+     * The files found by a scan and the modification times of the directories visited.
+     */
+    private static class Scan {
+
+        private final Map<String, SMBSnapshotIndex.Entry> files = new HashMap<>();
+        private final Map<String, Long> watermarks = new HashMap<>();
+        private final Set<String> unchangedDirectories = new HashSet<>();
+        private final Map<String, List<String>> knownSubdirectories = new HashMap<>();
+    }
+}
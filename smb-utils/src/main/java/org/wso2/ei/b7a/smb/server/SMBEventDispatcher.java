@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers events to a service concurrently, with a bound on the number of events in flight. Events with the same
+ * ordering key are delivered one after the other, in the order they were dispatched. Dispatching waits while the
+ * maximum number of events are in flight, which pauses the poll that found them. Each dispatcher has its own
+ * workers, which are shut down when it is closed.
+ */
+class SMBEventDispatcher {
+
+    private static final AtomicInteger DISPATCHER_COUNT = new AtomicInteger();
+
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final boolean ordered;
+    private final ExecutorService workers;
+    private final Map<String, CompletableFuture<Void>> lanes = new HashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param maxInFlight the maximum number of events delivered or waiting for their turn at the same time
+     * @param ordered     whether events with the same ordering key are delivered in order
+     */
+    SMBEventDispatcher(int maxInFlight, boolean ordered) {
+
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.permits = new Semaphore(this.maxInFlight);
+        this.ordered = ordered;
+        int dispatcherId = DISPATCHER_COUNT.incrementAndGet();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable,
+                    "smb-event-dispatcher-" + dispatcherId + "-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Dispatches the delivery of an event, waiting while the maximum number of events are in flight.
+     *
+     * @param key      the ordering key of the event
+     * @param delivery the delivery of the event, which handles its own failures
+     * @throws BallerinaSMBException if interrupted while waiting, or if the dispatcher is closed
+     */
+    void dispatch(String key, Runnable delivery) throws BallerinaSMBException {
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BallerinaSMBException("Interrupted while waiting to dispatch an event", e);
+        }
+        if (closed) {
+            permits.release();
+            throw new BallerinaSMBException("The event dispatcher is closed");
+        }
+        if (!ordered) {
+            CompletableFuture.runAsync(delivery, workers).whenComplete((result, error) -> permits.release());
+            return;
+        }
+        synchronized (lanes) {
+            CompletableFuture<Void> previous = lanes.get(key);
+            CompletableFuture<Void> lane = previous == null ? CompletableFuture.runAsync(delivery, workers)
+                    : previous.thenRunAsync(delivery, workers);
+            lanes.put(key, lane);
+            lane.whenComplete((result, error) -> {
+                permits.release();
+                synchronized (lanes) {
+                    lanes.remove(key, lane);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting events, waits until the events in flight are delivered and shuts the workers down.
+     */
+    void close() {
+
+        closed = true;
+        // Every event in flight holds a permit until it is delivered
+        permits.acquireUninterruptibly(maxInFlight);
+        permits.release(maxInFlight);
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Claims files for a node before the service is notified of them, so that several nodes or listeners consuming
+ * the same directory never process the same file. A file is claimed by renaming it into the processing area of
+ * the node, a `processingDirectory/nodeId` subdirectory of its directory. The rename is atomic on the server, so
+ * exactly one claimant succeeds, and a file which is still open for writing cannot be claimed until it is closed.
+ * <p>
+ * The creation time of a claimed file is set to the time it was claimed. A claim is completed by deleting the
+ * claimed file once the service is notified of it, unless the file is post processed, and a claim which is still in
+ * a processing area after the claim timeout, such as one of a node which stopped while processing it, is recovered
+ * by renaming the file back into its directory. The claim times and their ages are taken from the clock of the
+ * server, read from the modification time of a clock file the node writes in the processing directory, so the
+ * clocks of the nodes need not agree.
+ */
+class SMBFileClaimer {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBFileClaimer.class);
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final String CLOCK_SUFFIX = ".clock";
+
+    private final SMBSessionPool pool;
+    private final String nodeId;
+    private final String processingDirectory;
+    private final long claimTimeout;
+
+    /**
+     * Creates a claimer.
+     *
+     * @param pool                the session pool of the listener
+     * @param nodeId              the identifier of the node, which names its processing area
+     * @param processingDirectory the name of the directory of the processing areas in each watched directory
+     * @param claimTimeout        the time in milliseconds after which a claim is recovered
+     */
+    SMBFileClaimer(SMBSessionPool pool, String nodeId, String processingDirectory, long claimTimeout) {
+
+        this.pool = pool;
+        this.nodeId = nodeId;
+        this.processingDirectory = processingDirectory;
+        this.claimTimeout = Math.max(1, claimTimeout);
+    }
+
+    long getClaimTimeout() {
+        return claimTimeout;
+    }
+
+    /**
+     * Checks whether a directory holds processing areas, so that it is left out of the scans.
+     *
+     * @param directory the directory
+     * @return true if the directory holds processing areas
+     */
+    boolean isProcessingDirectory(SmbFile directory) {
+        return directory.getName().equals(processingDirectory + PATH_SEPARATOR);
+    }
+
+    /**
+     * Claims files for this node. The files which are gone, claimed by someone else, or still open for writing are
+     * left out, and so is a file whose claim time could not be recorded, after its claim is released.
+     * <p>
+     * A file whose name is taken in the processing area of this node by a claim older than the claim timeout, which
+     * could not be recovered since the file of the same name took its place, is left out as well, and the expired
+     * claim is taken over instead. The new file is claimed by a later poll, once the expired claim is completed.
+     *
+     * @param paths the paths of the files
+     * @return the paths of the claimed files in the processing area of this node, by their original paths
+     * @throws BallerinaSMBException if a session could not be borrowed
+     * @throws IOException           if a file could not be claimed for another reason
+     */
+    Map<String, String> claim(Collection<String> paths) throws BallerinaSMBException, IOException {
+
+        return pool.execute(session -> {
+            Map<String, String> claims = new LinkedHashMap<>();
+            long claimTime = 0;
+            for (String path : paths) {
+                String claimedPath = claimedPathOf(path);
+                if (!rename(session, path, claimedPath)) {
+                    continue;
+                }
+                // The server time is read once the processing directory of the first claim exists
+                claimTime = claimTime == 0 ? readServerTime(session, directoryOf(path)) : claimTime;
+                try {
+                    session.resolve(claimedPath).setCreateTime(claimTime);
+                    claims.put(path, claimedPath);
+                } catch (SmbException e) {
+                    // A claim without its claim time would be recovered at once by every node
+                    log.warn("Could not record the claim time of {}: {}", claimedPath, e.getMessage());
+                    release(session, path, claimedPath);
+                }
+            }
+            return claims;
+        });
+    }
+
+    /**
+     * Renames a file into the processing area of this node. If the name is taken by an expired claim, the claim
+     * is taken over in place of the file.
+     *
+     * @return true if the file, or the expired claim which takes its place, is in the processing area
+     */
+    private boolean rename(SMBSession session, String path, String claimedPath) throws IOException {
+
+        try {
+            renameInto(session, path, claimedPath, false);
+            return true;
+        } catch (SmbException e) {
+            int status = e.getNtStatus();
+            if (status == SmbException.NT_STATUS_OBJECT_NAME_NOT_FOUND
+                    || status == SmbException.NT_STATUS_OBJECT_PATH_NOT_FOUND
+                    || status == SmbException.NT_STATUS_SHARING_VIOLATION) {
+                return false;
+            }
+            if (status != SmbException.NT_STATUS_OBJECT_NAME_COLLISION) {
+                throw e;
+            }
+        }
+        SmbFile claimedFile = session.resolve(claimedPath);
+        long now = readServerTime(session, directoryOf(path));
+        if (now - claimedFile.createTime() < claimTimeout) {
+            log.debug("Left {} for a later poll, since a claim of the same name is in progress", path);
+            return false;
+        }
+        try {
+            claimedFile.setCreateTime(now);
+        } catch (SmbException e) {
+            log.warn("Could not take over the expired claim {}: {}", claimedPath, e.getMessage());
+            return false;
+        }
+        log.info("Took over the expired claim {}, which holds an earlier file of the same name as {}", claimedPath,
+                path);
+        return true;
+    }
+
+    private void renameInto(SMBSession session, String path, String claimedPath, boolean areaCreated)
+            throws IOException {
+
+        try {
+            session.resolve(path).renameTo(session.resolve(claimedPath));
+        } catch (SmbException e) {
+            if (e.getNtStatus() == SmbException.NT_STATUS_OBJECT_PATH_NOT_FOUND && !areaCreated) {
+                // The first claim in the directory creates the processing area
+                createArea(session, claimedPath.substring(0, claimedPath.lastIndexOf(PATH_SEPARATOR)));
+                renameInto(session, path, claimedPath, true);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the time of the server, from the modification time it gives the clock file of this node in the
+     * processing directory of a directory, which must exist.
+     */
+    private long readServerTime(SMBSession session, String directory) throws IOException {
+
+        String clockPath = directory + processingDirectory + PATH_SEPARATOR + nodeId + CLOCK_SUFFIX;
+        try (OutputStream outputStream = session.resolve(clockPath).getOutputStream()) {
+            outputStream.write(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        }
+        // A fresh handle, since a handle caches the attributes of the file
+        return session.resolve(clockPath).lastModified();
+    }
+
+    private static void createArea(SMBSession session, String area) throws IOException {
+
+        try {
+            session.resolveDirectory(area).mkdirs();
+        } catch (SmbException e) {
+            // Another node may have created the processing directory in the meantime
+            if (e.getNtStatus() != SmbException.NT_STATUS_OBJECT_NAME_COLLISION) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Releases claims, so that the files are found again by the next poll.
+     *
+     * @param claims the paths of the claimed files by their original paths
+     * @return the original paths of the files whose claims were released
+     */
+    Set<String> release(Map<String, String> claims) {
+
+        if (claims.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            return pool.execute(session -> {
+                Set<String> releasedPaths = new HashSet<>();
+                for (Map.Entry<String, String> claim : claims.entrySet()) {
+                    if (release(session, claim.getKey(), claim.getValue())) {
+                        releasedPaths.add(claim.getKey());
+                    }
+                }
+                return releasedPaths;
+            });
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while releasing claimed files: {}", e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    private static boolean release(SMBSession session, String path, String claimedPath) throws IOException {
+
+        try {
+            session.resolve(claimedPath).renameTo(session.resolve(path));
+            return true;
+        } catch (SmbException e) {
+            log.warn("Could not release the claim of {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Completes claims by deleting the claimed files, once the service is notified of them. A claimed file which
+     * could not be deleted is recovered and reported again after the claim timeout.
+     *
+     * @param claimedPaths the paths of the claimed files in the processing area of this node
+     */
+    void complete(Collection<String> claimedPaths) {
+
+        if (claimedPaths.isEmpty()) {
+            return;
+        }
+        try {
+            pool.execute(session -> {
+                for (String claimedPath : claimedPaths) {
+                    try {
+                        session.resolve(claimedPath).delete();
+                    } catch (SmbException e) {
+                        if (e.getNtStatus() != SmbException.NT_STATUS_OBJECT_NAME_NOT_FOUND) {
+                            log.warn("Could not complete the claim {}: {}", claimedPath, e.getMessage());
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (IOException | BallerinaSMBException | RuntimeException e) {
+            log.warn("Error while completing claimed files: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recovers the claims in the processing areas of the given directories which are older than the claim timeout,
+     * of every node.
+     *
+     * @param session     the session to recover the claims over
+     * @param directories the paths of the directories, ending with a separator
+     * @throws IOException if a processing area could not be listed
+     */
+    void recover(SMBSession session, Collection<String> directories) throws IOException {
+
+        long now = 0;
+        for (String directory : directories) {
+            SmbFile[] areas;
+            try {
+                areas = session.resolveDirectory(directory + processingDirectory).listFiles();
+            } catch (SmbException e) {
+                if (e.getNtStatus() == SmbException.NT_STATUS_OBJECT_NAME_NOT_FOUND
+                        || e.getNtStatus() == SmbException.NT_STATUS_OBJECT_PATH_NOT_FOUND) {
+                    continue;
+                }
+                throw e;
+            }
+            now = now == 0 ? readServerTime(session, directory) : now;
+            for (SmbFile area : areas) {
+                if (!area.isDirectory()) {
+                    continue;
+                }
+                for (SmbFile claimedFile : area.listFiles()) {
+                    if (!claimedFile.isDirectory() && now - claimedFile.createTime() >= claimTimeout) {
+                        try {
+                            claimedFile.renameTo(session.resolve(directory + claimedFile.getName()));
+                            log.info("Recovered the expired claim of {}{}", directory, claimedFile.getName());
+                        } catch (SmbException e) {
+                            if (e.getNtStatus() == SmbException.NT_STATUS_OBJECT_NAME_COLLISION) {
+                                // Recovered once the file which took its place is claimed, or taken over by
+                                // its claim
+                                log.debug("Left the expired claim of {}{} until its name is free", directory,
+                                        claimedFile.getName());
+                            } else {
+                                log.warn("Could not recover the expired claim of {}{}: {}", directory,
+                                        claimedFile.getName(), e.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static String directoryOf(String path) {
+        return path.substring(0, path.lastIndexOf(PATH_SEPARATOR) + 1);
+    }
+
+    private String claimedPathOf(String path) {
+
+        int nameStart = path.lastIndexOf(PATH_SEPARATOR) + 1;
+        return path.substring(0, nameStart) + processingDirectory + PATH_SEPARATOR + nodeId + PATH_SEPARATOR
+                + path.substring(nameStart);
+    }
+}
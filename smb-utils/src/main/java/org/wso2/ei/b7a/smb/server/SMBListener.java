@@ -24,27 +24,20 @@ import org.ballerinalang.jvm.types.BArrayType;
 import org.ballerinalang.jvm.types.BPackage;
 import org.ballerinalang.jvm.types.BTypes;
 import org.ballerinalang.jvm.values.ArrayValue;
+import org.ballerinalang.jvm.values.ErrorValue;
 import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.wso2.ei.b7a.smb.util.SMBUtil;
 import org.wso2.ei.b7a.smb.util.SmbConstants;
-import org.wso2.transport.remotefilesystem.listener.RemoteFileSystemListener;
-import org.wso2.transport.remotefilesystem.message.FileInfo;
-import org.wso2.transport.remotefilesystem.message.RemoteFileSystemBaseMessage;
-import org.wso2.transport.remotefilesystem.message.RemoteFileSystemEvent;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * SMB File System connector listener for Ballerina
  */
-public class SMBListener implements RemoteFileSystemListener {
+public class SMBListener {
 
-    private static final Logger log = LoggerFactory.getLogger(SMBListener.class);
     private final BRuntime runtime;
     private final ObjectValue service;
 
@@ -54,39 +47,38 @@ public class SMBListener implements RemoteFileSystemListener {
         this.service = service;
     }
 
-    @Override
-    public boolean onMessage(RemoteFileSystemBaseMessage remoteFileSystemBaseMessage) {
-
-        if (remoteFileSystemBaseMessage instanceof RemoteFileSystemEvent) {
-            RemoteFileSystemEvent event = (RemoteFileSystemEvent) remoteFileSystemBaseMessage;
-            MapValue<String, Object> parameters = getSignatureParameters(event);
-            runtime.invokeMethodSync(service, service.getType().getAttachedFunctions()[0].getName(),
-                    parameters, true);
+    /**
+     * Notifies the service of the files added to and deleted from the watched directory.
+     *
+     * @param addedFileList   the field values of the FileInfo records of the added files
+     * @param deletedFileList the paths of the deleted files
+     * @throws ErrorValue if the resource of the service returned an error
+     */
+    void onEvent(List<Map<String, Object>> addedFileList, List<String> deletedFileList) {
+
+        MapValue<String, Object> parameters = getSignatureParameters(addedFileList, deletedFileList);
+        Object result = runtime.invokeMethodSync(service, service.getType().getAttachedFunctions()[0].getName(),
+                parameters, true);
+        // A returned error fails the event just like a panic, so that its files are not treated as processed
+        if (result instanceof ErrorValue) {
+            throw (ErrorValue) result;
         }
-        return true;
     }
 
-    private MapValue<String, Object> getSignatureParameters(RemoteFileSystemEvent fileSystemEvent) {
+    private MapValue<String, Object> getSignatureParameters(List<Map<String, Object>> addedFileList,
+                                                            List<String> deletedFileList) {
 
         MapValue<String, Object> watchEventStruct = BallerinaValues.createRecordValue(
                 new BPackage(SmbConstants.SMB_ORG_NAME, SmbConstants.SMB_MODULE_NAME, SmbConstants.SMB_MODULE_VERSION),
                 SmbConstants.SMB_SERVER_EVENT);
-        List<FileInfo> addedFileList = fileSystemEvent.getAddedFiles();
-        List<String> deletedFileList = fileSystemEvent.getDeletedFiles();
 
         // For newly added files
         ArrayValue addedFiles = new ArrayValue(new BArrayType(SMBUtil.getFileInfoType()));
 
         for (int i = 0; i < addedFileList.size(); i++) {
-            FileInfo info = addedFileList.get(i);
-            Map<String, Object> fileInfoParams = new HashMap<>();
-            fileInfoParams.put("path", info.getPath());
-            fileInfoParams.put("size", info.getFileSize());
-            fileInfoParams.put(SmbConstants.LAST_MODIFIED_TIMESTAMP, info.getLastModifiedTime());
-
             final MapValue<String, Object> fileInfo = BallerinaValues.createRecordValue(
                     new BPackage(SmbConstants.SMB_ORG_NAME, SmbConstants.SMB_MODULE_NAME,
-                            SmbConstants.SMB_MODULE_VERSION), SmbConstants.SMB_FILE_INFO, fileInfoParams);
+                            SmbConstants.SMB_MODULE_VERSION), SmbConstants.SMB_FILE_INFO, addedFileList.get(i));
             addedFiles.add(i, fileInfo);
         }
 
@@ -99,16 +91,4 @@ public class SMBListener implements RemoteFileSystemListener {
         return BallerinaValues
                 .createRecord(watchEventStruct, addedFiles, deletedFiles);
     }
-
-    @Override
-    public void onError(Throwable throwable) {
-
-        log.error(throwable.getMessage(), throwable);
-    }
-
-    @Override
-    public void done() {
-
-        log.debug(SmbConstants.SUCCESSFULLY_FINISHED_THE_ACTION);
-    }
 }
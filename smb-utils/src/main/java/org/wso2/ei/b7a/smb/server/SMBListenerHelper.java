@@ -21,17 +21,13 @@ package org.wso2.ei.b7a.smb.server;
 import org.ballerinalang.jvm.BRuntime;
 import org.ballerinalang.jvm.values.MapValue;
 import org.ballerinalang.jvm.values.ObjectValue;
+import org.wso2.ei.b7a.smb.session.SMBEndpointContext;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+import org.wso2.ei.b7a.smb.session.SMBSessionPoolConfig;
 import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
-import org.wso2.ei.b7a.smb.util.SMBUtil;
 import org.wso2.ei.b7a.smb.util.SmbConstants;
-import org.wso2.transport.remotefilesystem.Constants;
-import org.wso2.transport.remotefilesystem.RemoteFileSystemConnectorFactory;
-import org.wso2.transport.remotefilesystem.exception.RemoteFileSystemConnectorException;
-import org.wso2.transport.remotefilesystem.impl.RemoteFileSystemConnectorFactoryImpl;
-import org.wso2.transport.remotefilesystem.server.connector.contract.RemoteFileSystemServerConnector;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * Helper class for listener functions
@@ -42,73 +38,111 @@ public class SMBListenerHelper {
         // private constructor
     }
 
-    public static RemoteFileSystemServerConnector register(ObjectValue smbListener,
-            MapValue<Object, Object> serviceEndpointConfig, ObjectValue service, String name)
+    public static Object register(ObjectValue smbListener, MapValue<Object, Object> serviceEndpointConfig,
+                                  ObjectValue service, String name) throws BallerinaSMBException {
+
+        SMBSessionPool pool = (SMBSessionPool) smbListener.getNativeData(SmbConstants.SMB_SESSION_POOL);
+        if (pool == null) {
+            pool = new SMBSessionPool(SMBEndpointContext.from(serviceEndpointConfig), SMBSessionPoolConfig.from(
+                    serviceEndpointConfig.getMapValue(SmbConstants.ENDPOINT_CONFIG_SESSION_POOL)));
+            smbListener.addNativeData(SmbConstants.SMB_SESSION_POOL, pool);
+        }
+        final SMBListener listener = new SMBListener(BRuntime.getCurrentRuntime(), service);
+        if (name == null || name.isEmpty()) {
+            name = service.getType().getName();
+        }
+        SMBWatchConfig watchConfig = SMBWatchConfig.from(serviceEndpointConfig, name);
+        SMBWatchGroup group = (SMBWatchGroup) smbListener.getNativeData(SmbConstants.SMB_WATCH_GROUP);
+        if (group == null) {
+            group = new SMBWatchGroup(createMembership(pool, serviceEndpointConfig), watchConfig);
+            smbListener.addNativeData(SmbConstants.SMB_WATCH_GROUP, group);
+            // The scheduled polls of the listener reach the watchers through its configuration
+            serviceEndpointConfig.addNativeData(SmbConstants.SMB_WATCH_GROUP, group);
+        }
+        SMBDirectoryWatcher watcher = new SMBDirectoryWatcher(pool, watchConfig, listener, group.getMembership(),
+                createClaimer(pool, serviceEndpointConfig), createPostProcessor(pool, serviceEndpointConfig));
+        group.add(name, watcher);
+        return watcher;
+    }
+
+    private static SMBClusterMembership createMembership(SMBSessionPool pool, MapValue<Object, Object> config) {
+
+        MapValue cluster = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_CLUSTER);
+        if (cluster == null) {
+            return null;
+        }
+        return new SMBClusterMembership(pool, cluster.getStringValue(SmbConstants.CLUSTER_NODE_ID),
+                cluster.getStringValue(SmbConstants.CLUSTER_MEMBERSHIP_DIRECTORY),
+                cluster.getIntValue(SmbConstants.CLUSTER_LEASE_DURATION),
+                cluster.getIntValue(SmbConstants.CLUSTER_HEARTBEAT_INTERVAL));
+    }
+
+    private static SMBFileClaimer createClaimer(SMBSessionPool pool, MapValue<Object, Object> config)
             throws BallerinaSMBException {
 
-        try {
-            Map<String, String> paramMap = getServerConnectorParamMap(serviceEndpointConfig);
-            RemoteFileSystemConnectorFactory fileSystemConnectorFactory = new RemoteFileSystemConnectorFactoryImpl();
-            final SMBListener listener = new SMBListener(BRuntime.getCurrentRuntime(), service);
-            if (name == null || name.isEmpty()) {
-                name = service.getType().getName();
-            }
-            RemoteFileSystemServerConnector serverConnector = fileSystemConnectorFactory
-                    .createServerConnector(name, paramMap, listener);
-            smbListener.addNativeData(SmbConstants.SMB_SERVER_CONNECTOR, serverConnector);
-            // This is a temporary solution
-            serviceEndpointConfig.addNativeData(SmbConstants.SMB_SERVER_CONNECTOR, serverConnector);
-            return serverConnector;
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException("Unable to initialize the SMB listener: " + e.getMessage(), e);
+        MapValue claim = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_CLAIM);
+        if (claim == null) {
+            return null;
         }
+        String nodeId = claim.getStringValue(SmbConstants.CLUSTER_NODE_ID);
+        MapValue cluster = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_CLUSTER);
+        if (nodeId == null && cluster != null) {
+            nodeId = cluster.getStringValue(SmbConstants.CLUSTER_NODE_ID);
+        }
+        if (nodeId == null || nodeId.isEmpty()) {
+            throw new BallerinaSMBException("A node identifier is required to claim files");
+        }
+        return new SMBFileClaimer(pool, nodeId, claim.getStringValue(SmbConstants.CLAIM_PROCESSING_DIRECTORY),
+                claim.getIntValue(SmbConstants.CLAIM_TIMEOUT));
     }
 
-    private static Map<String, String> getServerConnectorParamMap(MapValue serviceEndpointConfig)
+    private static SMBPostProcessor createPostProcessor(SMBSessionPool pool, MapValue<Object, Object> config)
             throws BallerinaSMBException {
 
-        Map<String, String> params = new HashMap<>(12);
-
-        MapValue secureSocket = serviceEndpointConfig.getMapValue(SmbConstants.ENDPOINT_CONFIG_SECURE_SOCKET);
-        String url = SMBUtil.createUrl(serviceEndpointConfig);
-        params.put(Constants.URI, url);
-        addStringProperty(serviceEndpointConfig, params
-        );
-        if (secureSocket != null) {
-            final MapValue privateKey = secureSocket.getMapValue(SmbConstants.ENDPOINT_CONFIG_PRIVATE_KEY);
-            if (privateKey != null) {
-                final String privateKeyPath = privateKey.getStringValue(SmbConstants.ENDPOINT_CONFIG_PATH);
-                if (privateKeyPath != null && !privateKeyPath.isEmpty()) {
-                    params.put(Constants.IDENTITY, privateKeyPath);
-                    final String privateKeyPassword = privateKey.getStringValue(SmbConstants.ENDPOINT_CONFIG_PASS_KEY);
-                    if (privateKeyPassword != null && !privateKeyPassword.isEmpty()) {
-                        params.put(Constants.IDENTITY_PASS_PHRASE, privateKeyPassword);
-                    }
-                }
-            }
+        MapValue postProcessing = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_POST_PROCESSING);
+        if (postProcessing == null) {
+            return null;
         }
-        params.put(Constants.USER_DIR_IS_ROOT, String.valueOf(false));
-        params.put(Constants.AVOID_PERMISSION_CHECK, String.valueOf(true));
-        params.put(Constants.PASSIVE_MODE, String.valueOf(true));
-        return params;
+        SMBPostProcessor.Action action = SMBPostProcessor.Action.valueOf(
+                postProcessing.getStringValue(SmbConstants.POST_PROCESSING_ACTION));
+        String archiveDirectory = postProcessing.getStringValue(SmbConstants.POST_PROCESSING_ARCHIVE_DIRECTORY);
+        if (action == SMBPostProcessor.Action.MOVE && archiveDirectory == null) {
+            throw new BallerinaSMBException("An archive directory is required to move the processed files");
+        }
+        return new SMBPostProcessor(pool, action, archiveDirectory,
+                postProcessing.getStringValue(SmbConstants.POST_PROCESSING_ERROR_DIRECTORY));
     }
 
-    private static void addStringProperty(MapValue config, Map<String, String> params) {
+    public static void start(ObjectValue smbListener) {
 
-        final String value = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_FILE_PATTERN);
-        if (value != null && !value.isEmpty()) {
-            params.put(Constants.FILE_NAME_PATTERN, value);
+        SMBWatchGroup group = (SMBWatchGroup) smbListener.getNativeData(SmbConstants.SMB_WATCH_GROUP);
+        if (group != null) {
+            group.start();
         }
     }
 
-    public static void poll(MapValue<Object, Object> config) throws BallerinaSMBException {
+    public static void stop(ObjectValue smbListener) throws BallerinaSMBException {
 
-        RemoteFileSystemServerConnector connector = (RemoteFileSystemServerConnector) config.
-                getNativeData(SmbConstants.SMB_SERVER_CONNECTOR);
+        SMBWatchGroup group = (SMBWatchGroup) smbListener.getNativeData(SmbConstants.SMB_WATCH_GROUP);
+        SMBSessionPool pool = (SMBSessionPool) smbListener.getNativeData(SmbConstants.SMB_SESSION_POOL);
         try {
-            connector.poll();
-        } catch (RemoteFileSystemConnectorException e) {
-            throw new BallerinaSMBException(e.getMessage());
+            if (group != null) {
+                group.stop();
+            }
+        } catch (IOException e) {
+            throw new BallerinaSMBException(e.getMessage(), e);
+        } finally {
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    public static void poll(MapValue<Object, Object> config) throws BallerinaSMBException {
+
+        SMBWatchGroup group = (SMBWatchGroup) config.getNativeData(SmbConstants.SMB_WATCH_GROUP);
+        if (group != null) {
+            group.poll();
         }
     }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import jcifs.smb.SmbException;
+import jcifs.smb.SmbFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.session.SMBSession;
+import org.wso2.ei.b7a.smb.session.SMBSessionPool;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deletes or moves the files of an event once the service is notified of them, and moves them to an error
+ * directory if the service fails. The actions on the files of an event are submitted to the session pool as a
+ * single batch, which runs on a pooled session while the next event is delivered, and gives back the files whose
+ * action failed.
+ * <p>
+ * The archive and error directories are created if they do not exist. A file moved to a directory which already
+ * has a file of its name is given the first free name with a numeric suffix, such as `data.csv.1`.
+ */
+class SMBPostProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBPostProcessor.class);
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final int MAX_NAME_SUFFIX = 1000;
+
+    /**
+     * The action on the files of an event the service processed.
+     */
+    enum Action {
+        NONE, DELETE, MOVE
+    }
+
+    private final SMBSessionPool pool;
+    private final Action action;
+    private final String archiveDirectory;
+    private final String errorDirectory;
+
+    /**
+     * Creates a post processor.
+     *
+     * @param pool             the session pool of the listener
+     * @param action           the action on the files the service processed
+     * @param archiveDirectory the directory the processed files are moved to by the move action
+     * @param errorDirectory   the directory the files are moved to if the service fails, or null to leave them
+     */
+    SMBPostProcessor(SMBSessionPool pool, Action action, String archiveDirectory, String errorDirectory) {
+
+        this.pool = pool;
+        this.action = action;
+        this.archiveDirectory = archiveDirectory;
+        this.errorDirectory = errorDirectory;
+    }
+
+    /**
+     * Checks whether the files the service processed are removed from their directory.
+     *
+     * @return true if the files are deleted or moved
+     */
+    boolean removesProcessedFiles() {
+        return action != Action.NONE;
+    }
+
+    /**
+     * Checks whether the files are moved away if the service fails.
+     *
+     * @return true if an error directory is set
+     */
+    boolean removesFailedFiles() {
+        return errorDirectory != null;
+    }
+
+    /**
+     * Submits the actions on the files of an event.
+     *
+     * @param paths     the paths of the files
+     * @param processed whether the service processed the files or failed
+     * @return a future which completes with the paths of the files whose action failed, once the actions are done
+     */
+    CompletableFuture<Set<String>> submit(Collection<String> paths, boolean processed) {
+
+        Action fileAction = processed ? action : errorDirectory == null ? Action.NONE : Action.MOVE;
+        String targetDirectory = processed ? archiveDirectory : errorDirectory;
+        if (fileAction == Action.NONE || paths.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptySet());
+        }
+        return pool.<Set<String>>submit(session -> {
+            Set<String> failedPaths = new LinkedHashSet<>();
+            String directory = null;
+            if (fileAction == Action.MOVE) {
+                directory = targetDirectory.endsWith(PATH_SEPARATOR) ? targetDirectory
+                        : targetDirectory + PATH_SEPARATOR;
+                try {
+                    createDirectory(session, directory);
+                } catch (IOException e) {
+                    log.warn("Could not create the directory {}: {}", directory, e.getMessage());
+                    failedPaths.addAll(paths);
+                    return failedPaths;
+                }
+            }
+            for (String path : paths) {
+                if (!apply(session, path, fileAction, directory)) {
+                    failedPaths.add(path);
+                }
+            }
+            return failedPaths;
+        }).exceptionally(e -> {
+            log.warn("Error while post processing the files of an event: {}", e.getMessage());
+            return new LinkedHashSet<>(paths);
+        });
+    }
+
+    private static boolean apply(SMBSession session, String path, Action fileAction, String directory) {
+
+        try {
+            if (fileAction == Action.DELETE) {
+                session.resolve(path).delete();
+            } else {
+                move(session, path, directory);
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not {} {}: {}", fileAction == Action.DELETE ? "delete" : "move", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void move(SMBSession session, String path, String directory) throws IOException {
+
+        String name = path.substring(path.lastIndexOf(PATH_SEPARATOR) + 1);
+        SmbFile file = session.resolve(path);
+        for (int suffix = 0; ; suffix++) {
+            String targetName = suffix == 0 ? name : name + "." + suffix;
+            try {
+                file.renameTo(session.resolve(directory + targetName));
+                return;
+            } catch (SmbException e) {
+                if (e.getNtStatus() != SmbException.NT_STATUS_OBJECT_NAME_COLLISION || suffix == MAX_NAME_SUFFIX) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void createDirectory(SMBSession session, String directory) throws IOException {
+
+        SmbFile targetDirectory = session.resolveDirectory(directory);
+        if (targetDirectory.exists()) {
+            return;
+        }
+        try {
+            targetDirectory.mkdirs();
+        } catch (SmbException e) {
+            // Another node may have created the directory in the meantime
+            if (!session.resolveDirectory(directory).exists()) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the files seen by a listener, with the size and the modification time of each file. The index is held
+ * in memory and, when a file is given, backed by an append-only log of the changes of each poll, so that a
+ * restarted listener only reports what changed while it was down. The log is rewritten from the entries of the
+ * index once it holds several times more records than the index has entries. The index is safe for use by
+ * concurrent deliveries of events.
+ */
+class SMBSnapshotIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBSnapshotIndex.class);
+
+    private static final int MAGIC = 0x534d4249;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int COMPACTION_FACTOR = 4;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path logFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private FileChannel channel;
+    private long records;
+
+    private SMBSnapshotIndex(Path logFile) {
+        this.logFile = logFile;
+    }
+
+    /**
+     * Creates an index which is not persisted.
+     *
+     * @return an empty index
+     */
+    static SMBSnapshotIndex inMemory() {
+        return new SMBSnapshotIndex(null);
+    }
+
+    /**
+     * Opens an index persisted in a file, creating the file and its directory if they do not exist. A record
+     * which was only partly written when the listener stopped is dropped. A file which is not an index is replaced
+     * by an empty index.
+     *
+     * @param logFile the file of the index
+     * @return the index with the entries of the file
+     * @throws IOException if the file could not be read or written
+     */
+    static SMBSnapshotIndex open(Path logFile) throws IOException {
+
+        SMBSnapshotIndex index = new SMBSnapshotIndex(logFile);
+        Path directory = logFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        long validLength = Files.exists(logFile) ? index.load(ByteBuffer.wrap(Files.readAllBytes(logFile))) : 0;
+        if (validLength < HEADER_LENGTH) {
+            index.rewrite();
+        } else {
+            index.channel = FileChannel.open(logFile, StandardOpenOption.WRITE);
+            index.channel.truncate(validLength);
+            index.channel.position(validLength);
+        }
+        return index;
+    }
+
+    /**
+     * Replays the records of a log into the index.
+     *
+     * @return the length of the log up to the end of the last complete record, or 0 if the log is not an index
+     */
+    private long load(ByteBuffer buffer) {
+
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            log.warn("Ignoring {}, which is not a snapshot index of this version", logFile);
+            return 0;
+        }
+        int validLength = buffer.position();
+        try {
+            while (buffer.hasRemaining()) {
+                byte operation = buffer.get();
+                int pathLength = buffer.getInt();
+                if (pathLength < 0 || pathLength > buffer.remaining()) {
+                    break;
+                }
+                byte[] pathBytes = new byte[pathLength];
+                buffer.get(pathBytes);
+                String path = new String(pathBytes, StandardCharsets.UTF_8);
+                if (operation == PUT) {
+                    long size = buffer.getLong();
+                    entries.put(path, new Entry(size, buffer.getLong()));
+                } else if (operation == REMOVE) {
+                    entries.remove(path);
+                } else {
+                    break;
+                }
+                records++;
+                validLength = buffer.position();
+            }
+        } catch (BufferUnderflowException e) {
+            // The last record was only partly written
+        }
+        if (validLength < buffer.limit()) {
+            log.warn("Dropped {} bytes of an incomplete record at the end of {}", buffer.limit() - validLength,
+                    logFile);
+        }
+        return validLength;
+    }
+
+    synchronized Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * Gives the paths of the files in the index.
+     *
+     * @return a copy of the paths, which is not affected by later updates
+     */
+    synchronized Set<String> paths() {
+        return new HashSet<>(entries.keySet());
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Applies the changes found by a poll, and appends them to the log before returning.
+     *
+     * @param changed the new and changed files
+     * @param removed the paths of the files which no longer exist
+     * @throws IOException if the changes could not be written to the log
+     */
+    synchronized void update(Map<String, Entry> changed, Collection<String> removed) throws IOException {
+
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        entries.putAll(changed);
+        entries.keySet().removeAll(removed);
+        if (channel == null) {
+            // The index is not persisted, or has been closed
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Map.Entry<String, Entry> entry : changed.entrySet()) {
+            writePut(out, entry.getKey(), entry.getValue());
+        }
+        for (String path : removed) {
+            writePath(out, REMOVE, path);
+        }
+        out.flush();
+        records += changed.size() + removed.size();
+        if (records > (long) COMPACTION_FACTOR * entries.size() + MIN_COMPACTION_RECORDS) {
+            rewrite();
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Writes the entries of the index to a new log, which replaces the current log once it is complete.
+     */
+    private void rewrite() throws IOException {
+
+        close();
+        Path tempFile = logFile.resolveSibling(logFile.getFileName() + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writePut(out, entry.getKey(), entry.getValue());
+            }
+        }
+        try (FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            tempChannel.force(true);
+        }
+        Files.move(tempFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = entries.size();
+        channel = FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void writePut(DataOutputStream out, String path, Entry entry) throws IOException {
+
+        writePath(out, PUT, path);
+        out.writeLong(entry.size);
+        out.writeLong(entry.lastModified);
+    }
+
+    private static void writePath(DataOutputStream out, byte operation, String path) throws IOException {
+
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(operation);
+        out.writeInt(pathBytes.length);
+        out.write(pathBytes);
+    }
+
+    /**
+     * Closes the log of the index.
+     */
+    synchronized void close() throws IOException {
+
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * The size and the modification time of a file.
+     */
+    static class Entry {
+
+        private final long size;
+        private final long lastModified;
+
+        Entry(long size, long lastModified) {
+
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return size == entry.size && lastModified == entry.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(size) + Long.hashCode(lastModified);
+        }
+    }
+}
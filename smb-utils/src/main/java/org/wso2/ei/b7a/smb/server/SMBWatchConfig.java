@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+import org.wso2.ei.b7a.smb.util.SMBFileNameMatcher;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of a {@link SMBDirectoryWatcher}
+ */
+class SMBWatchConfig {
+
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+    private static final String INVALID_FILE_NAME_CHARACTERS = "[^A-Za-z0-9._-]";
+
+    private final String path;
+    private final SMBFileNameMatcher fileNameMatcher;
+    private final Path snapshotFile;
+    private final boolean recursive;
+    private final boolean incrementalScan;
+    private final long fullScanInterval;
+    private final boolean notifyChanges;
+    private final long notifyInterval;
+    private final long pollingInterval;
+    private final MapValue adaptivePolling;
+    private final MapValue dispatch;
+    private final MapValue batching;
+
+    private SMBWatchConfig(String path, SMBFileNameMatcher fileNameMatcher, Path snapshotFile, boolean recursive,
+                           boolean incrementalScan, long fullScanInterval, boolean notifyChanges,
+                           long notifyInterval, long pollingInterval, MapValue adaptivePolling, MapValue dispatch,
+                           MapValue batching) {
+
+        this.path = path;
+        this.fileNameMatcher = fileNameMatcher;
+        this.snapshotFile = snapshotFile;
+        this.recursive = recursive;
+        this.incrementalScan = incrementalScan;
+        this.fullScanInterval = fullScanInterval;
+        this.notifyChanges = notifyChanges;
+        this.notifyInterval = notifyInterval;
+        this.pollingInterval = pollingInterval;
+        this.adaptivePolling = adaptivePolling;
+        this.dispatch = dispatch;
+        this.batching = batching;
+    }
+
+    /**
+     * Creates the configuration of the watcher of a service from the `ListenerConfig` record of a listener. The
+     * directory and file name pattern of the service are taken from its entry in the watches of the listener, if
+     * any, and from the listener otherwise. The file name pattern is compiled here, once per service.
+     *
+     * @param config      the listener configuration
+     * @param serviceName the name of the service, which names the snapshot file of the service
+     * @return the watch configuration
+     * @throws BallerinaSMBException if the file name pattern is not a valid regular expression
+     */
+    static SMBWatchConfig from(MapValue config, String serviceName) throws BallerinaSMBException {
+
+        final MapValue watches = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_WATCHES);
+        final MapValue watch = watches == null ? null : (MapValue) watches.get(serviceName);
+        final String path = watch == null ? config.getStringValue(SmbConstants.ENDPOINT_CONFIG_PATH)
+                : watch.getStringValue(SmbConstants.ENDPOINT_CONFIG_PATH);
+        final String pattern = watch == null || watch.getStringValue(SmbConstants.ENDPOINT_CONFIG_FILE_PATTERN) == null
+                ? config.getStringValue(SmbConstants.ENDPOINT_CONFIG_FILE_PATTERN)
+                : watch.getStringValue(SmbConstants.ENDPOINT_CONFIG_FILE_PATTERN);
+        final String snapshotDirectory = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_SNAPSHOT_DIRECTORY);
+        return new SMBWatchConfig(
+                path,
+                pattern == null || pattern.isEmpty() ? null : SMBFileNameMatcher.compile(pattern),
+                snapshotDirectory == null || snapshotDirectory.isEmpty() ? null : Paths.get(snapshotDirectory,
+                        serviceName.replaceAll(INVALID_FILE_NAME_CHARACTERS, "_") + SNAPSHOT_FILE_SUFFIX),
+                config.getBooleanValue(SmbConstants.ENDPOINT_CONFIG_RECURSIVE),
+                config.getBooleanValue(SmbConstants.ENDPOINT_CONFIG_INCREMENTAL_SCAN),
+                config.getIntValue(SmbConstants.ENDPOINT_CONFIG_FULL_SCAN_INTERVAL),
+                config.getBooleanValue(SmbConstants.ENDPOINT_CONFIG_NOTIFY_CHANGES),
+                config.getIntValue(SmbConstants.ENDPOINT_CONFIG_NOTIFY_INTERVAL),
+                config.getIntValue(SmbConstants.ENDPOINT_CONFIG_POLLING_INTERVAL),
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_ADAPTIVE_POLLING),
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_DISPATCH),
+                config.getMapValue(SmbConstants.ENDPOINT_CONFIG_BATCHING));
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Gives the matcher of the pattern the names of the reported files match.
+     *
+     * @return the matcher, or null if every file is reported
+     */
+    SMBFileNameMatcher getFileNameMatcher() {
+        return fileNameMatcher;
+    }
+
+    /**
+     * Gives the file the snapshot of the files seen is persisted in.
+     *
+     * @return the snapshot file, or null if the snapshot is kept in memory only
+     */
+    Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    boolean isRecursive() {
+        return recursive;
+    }
+
+    boolean isIncrementalScan() {
+        return incrementalScan;
+    }
+
+    long getFullScanInterval() {
+        return fullScanInterval;
+    }
+
+    boolean isNotifyChanges() {
+        return notifyChanges;
+    }
+
+    long getNotifyInterval() {
+        return notifyInterval;
+    }
+
+    long getPollingInterval() {
+        return pollingInterval;
+    }
+
+    boolean isAdaptivePolling() {
+        return adaptivePolling != null;
+    }
+
+    long getMinPollingInterval() {
+        return adaptivePolling.getIntValue(SmbConstants.ADAPTIVE_POLLING_MIN_INTERVAL);
+    }
+
+    long getMaxPollingInterval() {
+        return adaptivePolling.getIntValue(SmbConstants.ADAPTIVE_POLLING_MAX_INTERVAL);
+    }
+
+    double getBackoffFactor() {
+        return adaptivePolling.getFloatValue(SmbConstants.ADAPTIVE_POLLING_BACKOFF_FACTOR);
+    }
+
+    boolean isConcurrentDispatch() {
+        return dispatch != null;
+    }
+
+    int getMaxInFlightEvents() {
+        return Math.toIntExact(dispatch.getIntValue(SmbConstants.DISPATCH_MAX_IN_FLIGHT));
+    }
+
+    boolean isOrderedByPath() {
+        return dispatch.getBooleanValue(SmbConstants.DISPATCH_ORDERED_BY_PATH);
+    }
+
+    boolean isBatching() {
+        return batching != null;
+    }
+
+    int getMaxFilesPerEvent() {
+        return Math.max(1, Math.toIntExact(batching.getIntValue(SmbConstants.BATCHING_MAX_FILES_PER_EVENT)));
+    }
+
+    long getMaxBatchLatency() {
+        return batching.getIntValue(SmbConstants.BATCHING_MAX_BATCH_LATENCY);
+    }
+}
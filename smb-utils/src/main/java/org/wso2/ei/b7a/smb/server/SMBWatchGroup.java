@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The watchers of the services attached to a listener. The watchers share the session pool of the listener, and
+ * are polled one after the other on the schedule of the listener, so that watching many directories of a server
+ * takes a single schedule and a few pooled sessions rather than a listener per directory. With adaptive polling,
+ * the schedule is kept by a {@link SMBAdaptivePoller} of the group. In a cluster, the watchers share the
+ * membership of the node as well.
+ */
+class SMBWatchGroup {
+
+    private static final Logger log = LoggerFactory.getLogger(SMBWatchGroup.class);
+
+    private final Map<String, SMBDirectoryWatcher> watchers = new LinkedHashMap<>();
+    private final SMBClusterMembership membership;
+    private final SMBAdaptivePoller poller;
+
+    /**
+     * Creates a group.
+     *
+     * @param membership the cluster membership of the node, or null if the node watches every file
+     * @param config     the watch configuration of the listener, which holds its polling schedule
+     */
+    SMBWatchGroup(SMBClusterMembership membership, SMBWatchConfig config) {
+
+        this.membership = membership;
+        this.poller = config.isAdaptivePolling() ? new SMBAdaptivePoller(this, config.getPollingInterval(),
+                config.getMinPollingInterval(), config.getMaxPollingInterval(), config.getBackoffFactor()) : null;
+    }
+
+    SMBClusterMembership getMembership() {
+        return membership;
+    }
+
+    /**
+     * Adds the watcher of a service.
+     *
+     * @param serviceName the name of the service
+     * @param watcher     the watcher of the service
+     * @throws BallerinaSMBException if a service of the same name is already attached
+     */
+    synchronized void add(String serviceName, SMBDirectoryWatcher watcher) throws BallerinaSMBException {
+
+        if (watchers.containsKey(serviceName)) {
+            throw new BallerinaSMBException("A service named " + serviceName + " is already attached to the listener");
+        }
+        watchers.put(serviceName, watcher);
+    }
+
+    private synchronized List<SMBDirectoryWatcher> watchers() {
+        return new ArrayList<>(watchers.values());
+    }
+
+    void start() {
+
+        if (membership != null) {
+            membership.start();
+        }
+        for (SMBDirectoryWatcher watcher : watchers()) {
+            watcher.start();
+        }
+        if (poller != null) {
+            poller.start();
+        }
+    }
+
+    /**
+     * Polls every watcher. A watcher which fails to poll does not keep the others from polling.
+     *
+     * @return true if a watcher found changes
+     * @throws BallerinaSMBException if a watcher failed to poll, with the error of the first one which failed
+     */
+    boolean poll() throws BallerinaSMBException {
+
+        BallerinaSMBException failure = null;
+        boolean changes = false;
+        for (SMBDirectoryWatcher watcher : watchers()) {
+            try {
+                changes |= watcher.poll();
+            } catch (IOException | BallerinaSMBException | RuntimeException e) {
+                log.warn("Error while polling the watched directory: {}", e.getMessage());
+                if (failure == null) {
+                    failure = e instanceof BallerinaSMBException ? (BallerinaSMBException) e
+                            : new BallerinaSMBException(e.getMessage(), e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return changes;
+    }
+
+    /**
+     * Stops polling and stops every watcher.
+     *
+     * @throws IOException if the index of a watcher could not be closed, with the error of the first one
+     */
+    void stop() throws IOException {
+
+        if (poller != null) {
+            poller.stop();
+        }
+        IOException failure = null;
+        for (SMBDirectoryWatcher watcher : watchers()) {
+            try {
+                watcher.stop();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (membership != null) {
+            membership.stop();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.session;
+
+import jcifs.smb.NtlmPasswordAuthentication;
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+import org.wso2.ei.b7a.smb.util.SMBUtil;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+import java.util.Map;
+
+/**
+ * Immutable connection details of an SMB endpoint, built once when the endpoint is initialized.
+ * Resolving a resource of the endpoint only appends the resource path to the precomputed server URL.
+ */
+public final class SMBEndpointContext {
+
+    private static final char PATH_SEPARATOR = '/';
+    private static final String DOMAIN_SEPARATORS = "\\;";
+
+    private final String serverUrl;
+    private final NtlmPasswordAuthentication auth;
+
+    private SMBEndpointContext(String serverUrl, NtlmPasswordAuthentication auth) {
+
+        this.serverUrl = serverUrl;
+        this.auth = auth;
+    }
+
+    /**
+     * Creates the context from the configuration of an endpoint.
+     *
+     * @param config the endpoint configuration
+     * @return the endpoint context
+     * @throws BallerinaSMBException if the configured protocol is not supported
+     */
+    public static SMBEndpointContext from(MapValue config) throws BallerinaSMBException {
+
+        String protocol = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_PROTOCOL);
+        if (SMBUtil.notValidProtocol(protocol)) {
+            throw new BallerinaSMBException("Only SMB protocol is supported by SMB client.");
+        }
+        String host = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_HOST);
+        int port = SMBUtil.extractPortValue(config.getIntValue(SmbConstants.ENDPOINT_CONFIG_PORT));
+        Map<String, String> authMap = SMBUtil.getAuthMap(config);
+        return new SMBEndpointContext(protocol + "://" + host + ":" + port,
+                createAuth(authMap.get(SmbConstants.ENDPOINT_CONFIG_USERNAME),
+                        authMap.get(SmbConstants.ENDPOINT_CONFIG_PASS_KEY)));
+    }
+
+    private static NtlmPasswordAuthentication createAuth(String username, String password) {
+
+        String domain = null;
+        if (username != null) {
+            // Domain accounts can be given as DOMAIN;user or with a backslash as the separator
+            for (int i = 0; i < username.length(); i++) {
+                if (DOMAIN_SEPARATORS.indexOf(username.charAt(i)) >= 0) {
+                    domain = username.substring(0, i);
+                    username = username.substring(i + 1);
+                    break;
+                }
+            }
+        }
+        return new NtlmPasswordAuthentication(domain, username, password);
+    }
+
+    /**
+     * Gives the URL of a resource in the endpoint.
+     *
+     * @param path the absolute path of the resource, starting with the share name
+     * @return the URL of the resource
+     */
+    public String toUrl(String path) {
+
+        boolean absolute = !path.isEmpty() && path.charAt(0) == PATH_SEPARATOR;
+        StringBuilder url = new StringBuilder(serverUrl.length() + path.length() + 1).append(serverUrl);
+        if (!absolute) {
+            url.append(PATH_SEPARATOR);
+        }
+        return url.append(path).toString();
+    }
+
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    public NtlmPasswordAuthentication getAuth() {
+        return auth;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.session;
+
+import jcifs.smb.SmbFile;
+
+import java.net.MalformedURLException;
+
+/**
+ * A session with a Samba server, handed out by a {@link SMBSessionPool}. Resolves paths of the server to file
+ * handles carrying the credentials of the endpoint, which jcifs runs over its shared transport to the server.
+ */
+public class SMBSession {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final SMBEndpointContext endpointContext;
+
+    SMBSession(SMBEndpointContext endpointContext) {
+        this.endpointContext = endpointContext;
+    }
+
+    /**
+     * Resolves a path in the server to a file handle.
+     *
+     * @param path the absolute path of the resource, starting with the share name
+     * @return the file handle
+     * @throws MalformedURLException if the path cannot be resolved to a valid SMB URL
+     */
+    public SmbFile resolve(String path) throws MalformedURLException {
+
+        return new SmbFile(endpointContext.toUrl(path), endpointContext.getAuth());
+    }
+
+    /**
+     * Resolves a directory path in the server. The resolved URL always ends with a '/' as required for
+     * operations on the children of the directory.
+     *
+     * @param path the absolute path of the directory, starting with the share name
+     * @return the directory handle
+     * @throws MalformedURLException if the path cannot be resolved to a valid SMB URL
+     */
+    public SmbFile resolveDirectory(String path) throws MalformedURLException {
+
+        return resolve(path.endsWith(PATH_SEPARATOR) ? path : path + PATH_SEPARATOR);
+    }
+}
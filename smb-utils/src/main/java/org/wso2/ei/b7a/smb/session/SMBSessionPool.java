@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.session;
+
+import org.wso2.ei.b7a.smb.util.BallerinaSMBException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of operations an endpoint runs against a single Samba server at the same time. A pool is
+ * created per endpoint and every operation of the endpoint runs on a {@link SMBSession} handed out by it.
+ * The pool holds no connections itself: jcifs keeps one transport per server and reuses it for every session,
+ * so the pool only bounds the concurrency and runs asynchronous operations on its own bounded set of workers.
+ */
+public class SMBSessionPool {
+
+    private static final long WORKER_KEEP_ALIVE_TIME = 60000;
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final SMBEndpointContext endpointContext;
+    private final SMBSessionPoolConfig config;
+    private final SMBSession session;
+    private final Semaphore activePermits;
+    private final ThreadPoolExecutor workers;
+    private volatile boolean closed;
+
+    public SMBSessionPool(SMBEndpointContext endpointContext, SMBSessionPoolConfig config) {
+
+        this.endpointContext = endpointContext;
+        this.config = config;
+        this.session = new SMBSession(endpointContext);
+        this.activePermits = new Semaphore(config.getMaxActiveSessions(), true);
+        // There are never more workers than sessions, so submitted actions wait in the queue instead of
+        // occupying a thread each while they wait for a session.
+        int poolId = POOL_COUNT.incrementAndGet();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(config.getMaxActiveSessions(), config.getMaxActiveSessions(),
+                WORKER_KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "smb-session-worker-" + poolId + "-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Waits for a free session, executes the given action on it and hands the session back to the pool.
+     *
+     * @param action the action to execute
+     * @param <T>    the result type of the action
+     * @return the result of the action
+     * @throws BallerinaSMBException if the pool is closed or no session became free within the configured wait time
+     * @throws IOException           if the action failed
+     */
+    public <T> T execute(SessionAction<T> action) throws BallerinaSMBException, IOException {
+
+        acquire();
+        try {
+            return action.execute(session);
+        } finally {
+            activePermits.release();
+        }
+    }
+
+    /**
+     * Executes the given action asynchronously on a worker of the pool. Used to run several operations of the
+     * endpoint concurrently, each on its own session.
+     *
+     * @param action the action to execute
+     * @param <T>    the result type of the action
+     * @return a future which completes with the result of the action
+     */
+    public <T> CompletableFuture<T> submit(SessionAction<T> action) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            workers.execute(() -> {
+                try {
+                    result.complete(execute(action));
+                } catch (IOException | BallerinaSMBException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(closedError());
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the result of an action submitted to a pool.
+     *
+     * @param future the future of the submitted action
+     * @param <T>    the result type of the action
+     * @return the result of the action
+     * @throws BallerinaSMBException if the action failed with a {@link BallerinaSMBException} or the wait was
+     *                               interrupted
+     * @throws IOException           if the action failed with an {@link IOException}
+     */
+    public static <T> T await(Future<T> future) throws BallerinaSMBException, IOException {
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BallerinaSMBException("Interrupted while waiting for an SMB operation to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof BallerinaSMBException) {
+                throw (BallerinaSMBException) cause;
+            }
+            throw new BallerinaSMBException(cause.getMessage(), cause);
+        }
+    }
+
+    private void acquire() throws BallerinaSMBException {
+
+        if (closed) {
+            throw closedError();
+        }
+        try {
+            if (!activePermits.tryAcquire(config.getMaxWaitTimeInMillis(), TimeUnit.MILLISECONDS)) {
+                throw new BallerinaSMBException("Timed out after " + config.getMaxWaitTimeInMillis()
+                        + "ms waiting for an SMB session to " + endpointContext.getServerUrl());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BallerinaSMBException("Interrupted while waiting for an SMB session to "
+                    + endpointContext.getServerUrl(), e);
+        }
+    }
+
+    private BallerinaSMBException closedError() {
+        return new BallerinaSMBException("The SMB session pool to " + endpointContext.getServerUrl() + " is closed");
+    }
+
+    public int getMaxActiveSessions() {
+        return config.getMaxActiveSessions();
+    }
+
+    /**
+     * Closes the pool. Actions already submitted still run, but no new actions are accepted and the workers
+     * stop once they are done.
+     */
+    public void close() {
+
+        closed = true;
+        workers.shutdown();
+    }
+}
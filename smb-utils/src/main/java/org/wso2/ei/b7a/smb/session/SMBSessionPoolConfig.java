@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.session;
+
+import org.ballerinalang.jvm.values.MapValue;
+import org.wso2.ei.b7a.smb.util.SmbConstants;
+
+/**
+ * Configuration of a {@link SMBSessionPool}
+ */
+public class SMBSessionPoolConfig {
+
+    private static final int DEFAULT_MAX_ACTIVE_SESSIONS = 8;
+    private static final long DEFAULT_MAX_WAIT_TIME = 30000;
+
+    private final int maxActiveSessions;
+    private final long maxWaitTimeInMillis;
+
+    public SMBSessionPoolConfig(int maxActiveSessions, long maxWaitTimeInMillis) {
+
+        this.maxActiveSessions = Math.max(1, maxActiveSessions);
+        this.maxWaitTimeInMillis = maxWaitTimeInMillis;
+    }
+
+    /**
+     * Creates the pool configuration from the `SessionPoolConfig` record of an endpoint configuration.
+     *
+     * @param poolConfig the session pool record, or null to use the defaults
+     * @return the pool configuration
+     */
+    public static SMBSessionPoolConfig from(MapValue poolConfig) {
+
+        if (poolConfig == null) {
+            return new SMBSessionPoolConfig(DEFAULT_MAX_ACTIVE_SESSIONS, DEFAULT_MAX_WAIT_TIME);
+        }
+        return new SMBSessionPoolConfig(
+                Math.toIntExact(poolConfig.getIntValue(SmbConstants.POOL_MAX_ACTIVE_SESSIONS)),
+                poolConfig.getIntValue(SmbConstants.POOL_MAX_WAIT_TIME));
+    }
+
+    public int getMaxActiveSessions() {
+        return maxActiveSessions;
+    }
+
+    public long getMaxWaitTimeInMillis() {
+        return maxWaitTimeInMillis;
+    }
+}
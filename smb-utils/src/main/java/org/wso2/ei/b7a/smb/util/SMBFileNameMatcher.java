@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.ei.b7a.smb.util;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches file names against a file name pattern, which is a regular expression. The pattern is compiled once,
+ * and the patterns which only consist of literal characters, `.` and `.*`, such as the default `(.*).txt`, are
+ * matched without the regular expression engine: a pattern without `.*` is compared with the name, a pattern with
+ * a single `.*` is checked as a prefix and a suffix, and the other ones are matched as globs. Every other pattern
+ * is matched as a regular expression.
+ * <p>
+ * The matcher also gives an SMB wildcard which matches a superset of the names the pattern matches, so that a
+ * directory can be listed with the wildcard, leaving most of the names which do not match on the server.
+ */
+public final class SMBFileNameMatcher {
+
+    private static final int ANY_CHARACTER = -1;
+    private static final int ANY_SEQUENCE = -2;
+    private static final String MATCH_ALL_WILDCARD = "*";
+
+    private final Pattern pattern;
+    private final int[] tokens;
+    private final String prefix;
+    private final String suffix;
+    private final String wildcard;
+
+    private SMBFileNameMatcher(Pattern pattern, int[] tokens) {
+
+        this.pattern = pattern;
+        this.tokens = tokens;
+        if (tokens == null) {
+            this.prefix = null;
+            this.suffix = null;
+            this.wildcard = MATCH_ALL_WILDCARD;
+            return;
+        }
+        int sequences = 0;
+        int sequenceIndex = tokens.length;
+        boolean characters = false;
+        StringBuilder wildcardBuilder = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i] == ANY_SEQUENCE) {
+                sequences++;
+                sequenceIndex = i;
+                wildcardBuilder.append('*');
+            } else if (tokens[i] == ANY_CHARACTER) {
+                characters = true;
+                wildcardBuilder.append('?');
+            } else {
+                // The DOS wildcard characters stand for any character, as does a path separator
+                char c = (char) tokens[i];
+                wildcardBuilder.append("*?<>\"/\\".indexOf(c) >= 0 ? '?' : c);
+            }
+        }
+        if (!characters && sequences <= 1) {
+            this.prefix = literal(tokens, 0, sequenceIndex);
+            this.suffix = sequences == 0 ? "" : literal(tokens, sequenceIndex + 1, tokens.length);
+        } else {
+            this.prefix = null;
+            this.suffix = null;
+        }
+        this.wildcard = wildcardBuilder.toString();
+    }
+
+    /**
+     * Compiles a file name pattern.
+     *
+     * @param fileNamePattern the regular expression the file names are matched against
+     * @return the matcher
+     * @throws BallerinaSMBException if the pattern is not a valid regular expression
+     */
+    public static SMBFileNameMatcher compile(String fileNamePattern) throws BallerinaSMBException {
+
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(fileNamePattern);
+        } catch (PatternSyntaxException e) {
+            throw new BallerinaSMBException("Invalid file name pattern: " + fileNamePattern, e);
+        }
+        return new SMBFileNameMatcher(pattern, tokenize(fileNamePattern));
+    }
+
+    /**
+     * Splits a pattern into literal characters, `.` and `.*`, ignoring the groups around them.
+     *
+     * @return the tokens, or null if the pattern has any other construct
+     */
+    private static int[] tokenize(String fileNamePattern) {
+
+        int[] tokens = new int[fileNamePattern.length()];
+        int count = 0;
+        int depth = 0;
+        int i = 0;
+        while (i < fileNamePattern.length()) {
+            char c = fileNamePattern.charAt(i);
+            char next = i + 1 < fileNamePattern.length() ? fileNamePattern.charAt(i + 1) : 0;
+            if (c == '(') {
+                if (next == '?') {
+                    return null;
+                }
+                depth++;
+                i++;
+                continue;
+            }
+            if (c == ')') {
+                if (--depth < 0 || isQuantifier(next)) {
+                    return null;
+                }
+                i++;
+                continue;
+            }
+            if (c == '.') {
+                if (next == '*') {
+                    char afterNext = i + 2 < fileNamePattern.length() ? fileNamePattern.charAt(i + 2) : 0;
+                    if (afterNext == '?' || afterNext == '+') {
+                        return null;
+                    }
+                    if (count == 0 || tokens[count - 1] != ANY_SEQUENCE) {
+                        tokens[count++] = ANY_SEQUENCE;
+                    }
+                    i += 2;
+                    continue;
+                }
+                if (isQuantifier(next)) {
+                    return null;
+                }
+                tokens[count++] = ANY_CHARACTER;
+                i++;
+                continue;
+            }
+            if (c == '\\') {
+                // Only escaped punctuation is a literal, since escaped letters and digits are classes or references
+                if (next == 0 || Character.isLetterOrDigit(next)) {
+                    return null;
+                }
+                c = next;
+                i++;
+                next = i + 1 < fileNamePattern.length() ? fileNamePattern.charAt(i + 1) : 0;
+            } else if ("[]{}*+?|^$".indexOf(c) >= 0) {
+                return null;
+            }
+            if (isQuantifier(next)) {
+                return null;
+            }
+            tokens[count++] = c;
+            i++;
+        }
+        return depth == 0 ? Arrays.copyOf(tokens, count) : null;
+    }
+
+    private static boolean isQuantifier(char c) {
+        return c == '*' || c == '+' || c == '?' || c == '{';
+    }
+
+    private static String literal(int[] tokens, int from, int to) {
+
+        StringBuilder builder = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            builder.append((char) tokens[i]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gives an SMB wildcard which matches every name the pattern matches, and usually few others. The names the
+     * wildcard matches still need to be checked with {@link #matches(String)}, since servers may match wildcards
+     * case insensitively and against short names as well.
+     *
+     * @return the wildcard, which is `*` if the pattern cannot be narrowed down
+     */
+    public String getWildcard() {
+        return wildcard;
+    }
+
+    /**
+     * Checks whether a file name matches the pattern.
+     *
+     * @param name the file name
+     * @return true if the whole name matches
+     */
+    public boolean matches(String name) {
+
+        if (tokens == null || hasSpecialCharacter(name)) {
+            return pattern.matcher(name).matches();
+        }
+        if (prefix != null) {
+            if (prefix.length() == tokens.length) {
+                return name.equals(prefix);
+            }
+            return name.length() >= prefix.length() + suffix.length() && name.startsWith(prefix)
+                    && name.endsWith(suffix);
+        }
+        return matchesGlob(name);
+    }
+
+    private boolean matchesGlob(String name) {
+
+        int nameIndex = 0;
+        int tokenIndex = 0;
+        int sequenceToken = -1;
+        int sequenceEnd = 0;
+        while (nameIndex < name.length()) {
+            char c = name.charAt(nameIndex);
+            if (tokenIndex < tokens.length && tokens[tokenIndex] == ANY_SEQUENCE) {
+                sequenceToken = tokenIndex++;
+                sequenceEnd = nameIndex;
+            } else if (tokenIndex < tokens.length && (tokens[tokenIndex] == c || tokens[tokenIndex] == ANY_CHARACTER)) {
+                nameIndex++;
+                tokenIndex++;
+            } else if (sequenceToken >= 0) {
+                // Let the last `.*` take one more character, and match the rest of the tokens from there
+                tokenIndex = sequenceToken + 1;
+                nameIndex = ++sequenceEnd;
+            } else {
+                return false;
+            }
+        }
+        while (tokenIndex < tokens.length && tokens[tokenIndex] == ANY_SEQUENCE) {
+            tokenIndex++;
+        }
+        return tokenIndex == tokens.length;
+    }
+
+    /**
+     * Checks whether a name has a character which `.` does not match as a single character, a line terminator or
+     * half of a surrogate pair, so that the name is matched as a regular expression.
+     */
+    private static boolean hasSpecialCharacter(String name) {
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isSurrogate(c) || isLineTerminator(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
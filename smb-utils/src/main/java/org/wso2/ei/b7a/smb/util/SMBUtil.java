@@ -28,8 +28,6 @@ import org.ballerinalang.jvm.values.ObjectValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,6 +38,8 @@ public class SMBUtil {
 
     private static final Logger log = LoggerFactory.getLogger(SMBUtil.class);
     private static final int MAX_PORT = 65535;
+    private static final BPackage SMB_PACKAGE = new BPackage(SmbConstants.SMB_ORG_NAME,
+            SmbConstants.SMB_MODULE_NAME, SmbConstants.SMB_MODULE_VERSION);
 
     private SMBUtil() {
         // private constructor
@@ -50,51 +50,6 @@ public class SMBUtil {
         return !url.startsWith("smb");
     }
 
-    public static String createUrl(ObjectValue clientConnector, String filePath) throws BallerinaSMBException {
-
-        String username = (String) clientConnector.getNativeData(SmbConstants.ENDPOINT_CONFIG_USERNAME);
-        String password = (String) clientConnector.getNativeData(SmbConstants.ENDPOINT_CONFIG_PASS_KEY);
-        String host = (String) clientConnector.getNativeData(SmbConstants.ENDPOINT_CONFIG_HOST);
-        int port = (int) clientConnector.getNativeData(SmbConstants.ENDPOINT_CONFIG_PORT);
-        String protocol = (String) clientConnector.getNativeData(SmbConstants.ENDPOINT_CONFIG_PROTOCOL);
-
-        return createUrl(protocol, host, port, username, password, filePath);
-    }
-
-    public static String createUrl(MapValue config) throws BallerinaSMBException {
-
-        final String filePath = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_PATH);
-        String protocol = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_PROTOCOL);
-        final String host = config.getStringValue(SmbConstants.ENDPOINT_CONFIG_HOST);
-        int port = extractPortValue(config.getIntValue(SmbConstants.ENDPOINT_CONFIG_PORT));
-
-        final MapValue secureSocket = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_SECURE_SOCKET);
-        String username = null;
-        String password = null;
-        if (secureSocket != null) {
-            final MapValue basicAuth = secureSocket.getMapValue(SmbConstants.ENDPOINT_CONFIG_BASIC_AUTH);
-            if (basicAuth != null) {
-                username = basicAuth.getStringValue(SmbConstants.ENDPOINT_CONFIG_USERNAME);
-                password = basicAuth.getStringValue(SmbConstants.ENDPOINT_CONFIG_PASS_KEY);
-            }
-        }
-        return createUrl(protocol, host, port, username, password, filePath);
-    }
-
-    private static String createUrl(String protocol, String host, int port, String username, String password,
-                                    String filePath) throws BallerinaSMBException {
-
-        String userInfo = username + ":" + password;
-        URI uri;
-        try {
-            uri = new URI(protocol, userInfo, host, port, filePath, null, null);
-        } catch (URISyntaxException e) {
-            throw new BallerinaSMBException("Error occurred while constructing a URI from host: " + host +
-                    ", port: " + port + ", username: " + username + " and basePath: " + filePath + e.getMessage(), e);
-        }
-        return uri.toString();
-    }
-
     public static Map<String, String> getAuthMap(MapValue config) {
         final MapValue secureSocket = config.getMapValue(SmbConstants.ENDPOINT_CONFIG_SECURE_SOCKET);
         String username = null;
@@ -153,9 +108,40 @@ public class SMBUtil {
      */
     public static BType getFileInfoType() {
 
-        MapValue<String, Object> fileInfoStruct = BallerinaValues.createRecordValue(
-                new BPackage(SmbConstants.SMB_ORG_NAME, SmbConstants.SMB_MODULE_NAME, SmbConstants.SMB_MODULE_VERSION),
-                SmbConstants.SMB_FILE_INFO);
-        return fileInfoStruct.getType();
+        return getRecordType(SmbConstants.SMB_FILE_INFO);
+    }
+
+    /**
+     * Gives the type of a record defined in the smb module.
+     *
+     * @param recordName the name of the record
+     * @return the record type
+     */
+    public static BType getRecordType(String recordName) {
+
+        return BallerinaValues.createRecordValue(SMB_PACKAGE, recordName).getType();
+    }
+
+    /**
+     * Creates an instance of an object defined in the smb module.
+     *
+     * @param objectName the name of the object
+     * @return the object value
+     */
+    public static ObjectValue createObject(String objectName) {
+
+        return BallerinaValues.createObjectValue(SMB_PACKAGE, objectName);
+    }
+
+    /**
+     * Creates a value of a record defined in the smb module.
+     *
+     * @param recordName the name of the record
+     * @param values     the field values of the record
+     * @return the record value
+     */
+    public static MapValue<String, Object> createRecord(String recordName, Map<String, Object> values) {
+
+        return BallerinaValues.createRecordValue(SMB_PACKAGE, recordName, values);
     }
 }
@@ -18,8 +18,6 @@
 
 package org.wso2.ei.b7a.smb.util;
 
-import org.wso2.transport.remotefilesystem.Constants;
-
 /**
  * Constants for SMB operations
  */
@@ -31,20 +29,30 @@ public class SmbConstants {
 
     public static final String SUCCESSFULLY_FINISHED_THE_ACTION = "Successfully finished the action.";
     public static final String LAST_MODIFIED_TIMESTAMP = "lastModifiedTimestamp";
+    public static final String CREATED_TIMESTAMP = "createdTimestamp";
+    public static final String FILE_ATTRIBUTES = "attributes";
 
-    public static final String PROPERTY_URI = Constants.URI;
-    public static final String PROPERTY_DESTINATION = Constants.DESTINATION;
-    public static final String SMB_PASSIVE_MODE = Constants.PASSIVE_MODE;
-    public static final String USER_DIR_IS_ROOT = Constants.USER_DIR_IS_ROOT;
-    public static final String AVOID_PERMISSION_CHECK = Constants.AVOID_PERMISSION_CHECK;
-    public static final String PROPERTY_MAP = "map";
+    public static final String SMB_SESSION_POOL = "sessionPool";
+    public static final String SMB_TRANSFER_CONFIG = "parallelTransfer";
+    public static final String SMB_TRANSFER_BUFFERS = "transferBuffers";
+    public static final String SMB_READ_AHEAD_CONFIG = "readAhead";
+    public static final String SMB_READ_AHEAD_BUFFERS = "readAheadBuffers";
+    public static final String SMB_READ_AHEAD_PERMITS = "readAheadPermits";
+    public static final String SMB_BATCH_CONCURRENCY = "batchConcurrency";
+    public static final String SMB_METADATA_CACHE = "metadataCache";
     public static final String SMB_ORG_NAME = "wso2";
     public static final String SMB_MODULE_NAME = "smb";
     public static final String SMB_MODULE_VERSION = "0.3.1";
     public static final String SMB_LISTENER = "Listener";
     public static final String SMB_SERVER_EVENT = "WatchEvent";
     public static final String SMB_FILE_INFO = "FileInfo";
+    public static final String SMB_FILE_STAT = "FileStat";
+    public static final String SMB_BATCH_RESULT = "BatchResult";
+    public static final String SMB_STAT_RESULT = "StatResult";
+    public static final String SMB_FILE_INFO_STREAM = "FileInfoStream";
+    public static final String SMB_CACHE_STATS = "CacheStats";
     public static final String SMB_SERVER_CONNECTOR = "serverConnector";
+    public static final String SMB_WATCH_GROUP = "watchGroup";
 
     public static final String ENDPOINT_CONFIG_PROTOCOL = "protocol";
     public static final String ENDPOINT_CONFIG_HOST = "host";
@@ -53,9 +61,77 @@ public class SmbConstants {
     public static final String ENDPOINT_CONFIG_PASS_KEY = "password";
     public static final String ENDPOINT_CONFIG_PATH = "path";
     public static final String ENDPOINT_CONFIG_FILE_PATTERN = "fileNamePattern";
+    public static final String ENDPOINT_CONFIG_SNAPSHOT_DIRECTORY = "snapshotDirectory";
+    public static final String ENDPOINT_CONFIG_RECURSIVE = "recursive";
+    public static final String ENDPOINT_CONFIG_INCREMENTAL_SCAN = "incrementalScan";
+    public static final String ENDPOINT_CONFIG_FULL_SCAN_INTERVAL = "fullScanInterval";
+    public static final String ENDPOINT_CONFIG_NOTIFY_CHANGES = "notifyChanges";
+    public static final String ENDPOINT_CONFIG_NOTIFY_INTERVAL = "notifyInterval";
+    public static final String ENDPOINT_CONFIG_POLLING_INTERVAL = "pollingInterval";
+    public static final String ENDPOINT_CONFIG_ADAPTIVE_POLLING = "adaptivePolling";
+    public static final String ENDPOINT_CONFIG_DISPATCH = "dispatch";
+    public static final String ENDPOINT_CONFIG_BATCHING = "batching";
+    public static final String ENDPOINT_CONFIG_WATCHES = "watches";
+    public static final String ENDPOINT_CONFIG_CLUSTER = "cluster";
+    public static final String ENDPOINT_CONFIG_CLAIM = "claim";
+    public static final String ENDPOINT_CONFIG_POST_PROCESSING = "postProcessing";
+
+    public static final String ADAPTIVE_POLLING_MIN_INTERVAL = "minInterval";
+    public static final String ADAPTIVE_POLLING_MAX_INTERVAL = "maxInterval";
+    public static final String ADAPTIVE_POLLING_BACKOFF_FACTOR = "backoffFactor";
+    public static final String DISPATCH_MAX_IN_FLIGHT = "maxInFlight";
+    public static final String DISPATCH_ORDERED_BY_PATH = "orderedByPath";
+    public static final String BATCHING_MAX_FILES_PER_EVENT = "maxFilesPerEvent";
+    public static final String BATCHING_MAX_BATCH_LATENCY = "maxBatchLatency";
+    public static final String CLUSTER_NODE_ID = "nodeId";
+    public static final String CLUSTER_MEMBERSHIP_DIRECTORY = "membershipDirectory";
+    public static final String CLUSTER_LEASE_DURATION = "leaseDuration";
+    public static final String CLUSTER_HEARTBEAT_INTERVAL = "heartbeatInterval";
+    public static final String CLAIM_PROCESSING_DIRECTORY = "processingDirectory";
+    public static final String CLAIM_TIMEOUT = "claimTimeout";
+    public static final String POST_PROCESSING_ACTION = "action";
+    public static final String POST_PROCESSING_ARCHIVE_DIRECTORY = "archiveDirectory";
+    public static final String POST_PROCESSING_ERROR_DIRECTORY = "errorDirectory";
     public static final String ENDPOINT_CONFIG_SECURE_SOCKET = "secureSocket";
     static final String ENDPOINT_CONFIG_BASIC_AUTH = "basicAuth";
     public static final String ENDPOINT_CONFIG_PRIVATE_KEY = "privateKey";
+    public static final String ENDPOINT_CONFIG_SESSION_POOL = "sessionPool";
+    public static final String ENDPOINT_CONFIG_PARALLEL_TRANSFER = "parallelTransfer";
+    public static final String ENDPOINT_CONFIG_READ_AHEAD = "readAhead";
+    public static final String ENDPOINT_CONFIG_BATCH = "batch";
+    public static final String ENDPOINT_CONFIG_METADATA_CACHE = "metadataCache";
+
+    public static final String POOL_MAX_ACTIVE_SESSIONS = "maxActiveSessions";
+    public static final String POOL_MAX_WAIT_TIME = "maxWaitTimeInMillis";
+
+    public static final String TRANSFER_CHUNK_SIZE = "chunkSizeInBytes";
+    public static final String TRANSFER_MAX_CONCURRENCY = "maxConcurrency";
+
+    public static final String READ_AHEAD_BUFFER_SIZE = "bufferSize";
+    public static final String READ_AHEAD_OUTSTANDING_READS = "outstandingReads";
+    public static final String READ_AHEAD_DIRECT_BUFFERS = "directBuffers";
+
+    public static final String BATCH_MAX_CONCURRENCY = "maxConcurrency";
+    public static final String RENAME_ORIGIN = "origin";
+    public static final String RENAME_DESTINATION = "destination";
+    public static final String BATCH_RESULT_PATH = "path";
+    public static final String BATCH_RESULT_SUCCESS = "success";
+    public static final String BATCH_RESULT_ERROR_MESSAGE = "errorMessage";
+    public static final String STAT_RESULT_STAT = "stat";
+
+    public static final String CACHE_ENABLED = "enabled";
+    public static final String CACHE_MAX_ENTRIES = "maxEntries";
+    public static final String CACHE_TTL = "ttlInMillis";
+    public static final String CACHE_NEGATIVE_TTL = "negativeTtlInMillis";
+    public static final String CACHE_HITS = "hits";
+    public static final String CACHE_MISSES = "misses";
+    public static final String CACHE_SIZE = "size";
+
+    public static final String WALK_MIN_SIZE = "minSize";
+    public static final String WALK_MAX_SIZE = "maxSize";
+    public static final String WALK_MODIFIED_AFTER = "modifiedAfter";
+    public static final String WALK_MODIFIED_BEFORE = "modifiedBefore";
+    public static final String WALK_INCLUDE_FOLDERS = "includeFolders";
 
     public static final String INPUT_CONTENT_FILE_PATH_KEY = "filePath";
     public static final String INPUT_CONTENT_IS_FILE_KEY = "isFile";